@@ -0,0 +1,192 @@
+package com.rus.jazz.tool.analyzescmcontent;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.Properties;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.ibm.team.scm.common.IComponentHandle;
+import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
+
+/**
+ * State of the incremental analyze. For each component the modification time
+ * of the newest analyzed change set is stored as high-water mark in a state
+ * file. The next incremental run only searches change sets, which are modified
+ * after this mark. An incremental run searches the change sets oldest first,
+ * so the mark of a component only passes change sets, whose rows are already
+ * written. The marks are saved together with the length of the csv
+ * file at each commit of the output, so the next run can cut off the rows of
+ * an aborted run, that are not covered by the marks.
+ */
+public final class IncrementalState {
+
+	private static final Logger LOGGER = LogManager.getLogger(IncrementalState.class.getName());
+
+	private static final String STATE_FILE = "IncrementalState.File";
+
+	private static final String DEFAULT_STATE_FILE = "SCMAnalyze.state";
+
+	/**
+	 * Key of the csv length in the state file. Component ids start with '_',
+	 * so the key cannot be mixed up with a component.
+	 */
+	private static final String CSV_LENGTH = "CSVLength";
+
+	private static IncrementalState instance;
+
+	private transient final File file;
+
+	private transient final Properties marks;
+
+	private transient long csvLength = -1;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param file
+	 *            the state file
+	 */
+	private IncrementalState(final File file) {
+		this.file = file;
+		marks = new Properties();
+	}
+
+	/**
+	 * Return the instance of the incremental state. The state file will be
+	 * read with the first call.
+	 * 
+	 * @return incremental state
+	 * @throws AnalyzeException
+	 */
+	public static synchronized IncrementalState getInstance() throws AnalyzeException {
+		if (instance == null) {
+			final String fileName = SCMAnalyzeParameter.getInstance().getConfiguration()
+					.getProperty(STATE_FILE, DEFAULT_STATE_FILE);
+			instance = new IncrementalState(new File(fileName.trim()));
+			instance.load();
+		}
+		return instance;
+	}
+
+	private void load() throws AnalyzeException {
+		// the temporary file is complete, if the run stopped while replacing
+		// the state file
+		final File temp = getTempFile();
+		final File source = file.exists() ? file : temp;
+		if (source.exists()) {
+			try {
+				final InputStream input = new FileInputStream(source);
+				try {
+					marks.load(input);
+				} finally {
+					input.close();
+				}
+				final String length = (String) marks.remove(CSV_LENGTH);
+				if (length != null) {
+					csvLength = Long.parseLong(length);
+				}
+				LOGGER.info("Incremental state of " + marks.size() + " components read from " + source);
+			} catch (IOException exception) {
+				throw new AnalyzeException("Error while reading the incremental state file " + source, exception);
+			} catch (NumberFormatException exception) {
+				throw new AnalyzeException("The incremental state file " + source + " is damaged", exception);
+			}
+		}
+	}
+
+	private File getTempFile() {
+		return new File(file.getPath() + ".tmp");
+	}
+
+	/**
+	 * Return the length of the csv file, when the state was saved.
+	 * 
+	 * @return length of the csv file, -1 if it is unknown
+	 */
+	public synchronized long getCSVLength() {
+		return csvLength;
+	}
+
+	/**
+	 * Return the date after which the change sets of a component are searched.
+	 * If the component was already analyzed, this is the mark of the previous
+	 * run, otherwise the configured modified after date.
+	 * 
+	 * @param componentHandle
+	 *            the component
+	 * @return modified after date
+	 */
+	public synchronized Timestamp getModifiedAfter(final IComponentHandle componentHandle) {
+		Timestamp result;
+
+		final String mark = marks.getProperty(componentHandle.getItemId().getUuidValue());
+		if (mark == null) {
+			result = SCMAnalyzeParameter.getInstance().getModifiedAfter();
+		} else {
+			// the change set at the mark itself was already analyzed
+			result = new Timestamp(Long.parseLong(mark) + 1);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Move the mark of a component forward to an analyzed change set. Older
+	 * modification times are ignored.
+	 * 
+	 * @param componentHandle
+	 *            the component
+	 * @param lastChangeDate
+	 *            modification time of the analyzed change set
+	 */
+	public synchronized void update(final IComponentHandle componentHandle, final Date lastChangeDate) {
+		if (lastChangeDate != null) {
+			final String key = componentHandle.getItemId().getUuidValue();
+			final String mark = marks.getProperty(key);
+			if (mark == null || Long.parseLong(mark) < lastChangeDate.getTime()) {
+				marks.setProperty(key, Long.toString(lastChangeDate.getTime()));
+			}
+		}
+	}
+
+	/**
+	 * Write the marks to the state file. The file is replaced only if the new
+	 * state was written completely. The csv file has to be forced to disk
+	 * before, the marks must cover exactly the rows up to the given length.
+	 * 
+	 * @param length
+	 *            the length of the csv file
+	 * @throws AnalyzeException
+	 */
+	public synchronized void save(final long length) throws AnalyzeException {
+		final File temp = getTempFile();
+		final Properties state = new Properties();
+		state.putAll(marks);
+		state.setProperty(CSV_LENGTH, Long.toString(length));
+		try {
+			final FileOutputStream output = new FileOutputStream(temp);
+			try {
+				state.store(output, "Newest analyzed change set per component");
+				output.getFD().sync();
+			} finally {
+				output.close();
+			}
+		} catch (IOException exception) {
+			throw new AnalyzeException("Error while writing the incremental state file " + file, exception);
+		}
+
+		if (file.exists() && !file.delete() || !temp.renameTo(file)) {
+			throw new AnalyzeException("Incremental state file " + file + " could not be replaced");
+		}
+		csvLength = length;
+		LOGGER.debug("Incremental state of " + marks.size() + " components written to " + file);
+	}
+
+}
@@ -21,6 +21,9 @@ public class SCMAnalyzeCLI extends AbstractALMToolCLI {
 
 	private static final String PROJECT_AREAS = "projectAreas";
 
+	private static final String INCREMENTAL = "incremental";
+	private static final String RESUME = "resume";
+
 	private transient String[] projectAreas;
 	private transient String[] components;
 	private transient String modifiedAfter;
@@ -56,6 +59,14 @@ public class SCMAnalyzeCLI extends AbstractALMToolCLI {
 				.withDescription(
 						"The file name of the template file. In the template file you define the analyze modules and their order for the SCM analyze. If not specified, the file name defined in the SCMAnalyze.properties will be used.")
 				.create(TEMPL_FILE_NAME));
+		options.addOption(OptionBuilder
+				.withDescription(
+						"Only change sets which are modified after the newest change set of the last incremental run will be analyzed. The results are appended to the csv file.")
+				.create(INCREMENTAL));
+		options.addOption(OptionBuilder
+				.withDescription(
+						"Resume an interrupted run with the same parameters. Finished components and change sets are skipped and the csv file is continued after the last committed row.")
+				.create(RESUME));
 	}
 
 	@Override
@@ -92,6 +103,8 @@ public class SCMAnalyzeCLI extends AbstractALMToolCLI {
 			if (cmd.hasOption(TEMPL_FILE_NAME)) {
 				SCMAnalyzeParameter.getInstance().setTemplateFile(templateFileName);
 			}
+			SCMAnalyzeParameter.getInstance().setIncremental(cmd.hasOption(INCREMENTAL));
+			SCMAnalyzeParameter.getInstance().setResume(cmd.hasOption(RESUME));
 			analyzer.analyze();
 		} catch (Exception e) { // NOPMD
 			e.printStackTrace(); // NOPMD
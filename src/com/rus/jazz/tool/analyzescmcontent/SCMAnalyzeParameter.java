@@ -70,6 +70,16 @@ public final class SCMAnalyzeParameter {
 	 */
 	private transient String templateFileName;
 
+	/**
+	 * Only analyze the change sets since the last run.
+	 */
+	private transient boolean incremental;
+
+	/**
+	 * Skip the work finished by an interrupted run.
+	 */
+	private transient boolean resume;
+
 	private static SCMAnalyzeParameter instance;
 
 	/**
@@ -322,12 +332,53 @@ public final class SCMAnalyzeParameter {
 	}
 
 	/**
-	 * Return the configured date format.
+	 * Set, if only the change sets since the last run should be analyzed.
+	 * 
+	 * @param incremental
+	 *            true for an incremental run
+	 */
+	public void setIncremental(final boolean incremental) {
+		this.incremental = incremental;
+	}
+
+	/**
+	 * Return, if only the change sets since the last run are analyzed. In
+	 * this case the results are appended to the output file.
+	 * 
+	 * @return true for an incremental run
+	 */
+	public boolean isIncremental() {
+		return incremental;
+	}
+
+	/**
+	 * Set, if an interrupted run should be resumed.
+	 * 
+	 * @param resume
+	 *            true to resume the last run
+	 */
+	public void setResume(final boolean resume) {
+		this.resume = resume;
+	}
+
+	/**
+	 * Return, if the finished work of an interrupted run is skipped. In this
+	 * case the output file is continued after the last committed row.
+	 * 
+	 * @return true to resume the last run
+	 */
+	public boolean isResume() {
+		return resume;
+	}
+
+	/**
+	 * Return the configured date format. A date format is not thread-safe, so
+	 * every call returns a copy of its own.
 	 * 
 	 * @return dateFormat
 	 */
 	public DateFormat getDateFormat() {
-		return format;
+		return (DateFormat) format.clone();
 	}
 
 	/**
@@ -339,4 +390,25 @@ public final class SCMAnalyzeParameter {
 		return configuration;
 	}
 
+	/**
+	 * Return an integer value from the configuration. If the property is not
+	 * defined the default value will be returned.
+	 * 
+	 * @param key
+	 *            name of the property
+	 * @param defaultValue
+	 *            value if the property is not defined
+	 * @return configured value or default value
+	 */
+	public int getIntegerProperty(final String key, final int defaultValue) {
+		int result = defaultValue;
+
+		final String value = configuration.getProperty(key);
+		if (value != null && !value.trim().isEmpty()) {
+			result = Integer.parseInt(value.trim());
+		}
+
+		return result;
+	}
+
 }
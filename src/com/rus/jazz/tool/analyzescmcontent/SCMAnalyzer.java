@@ -8,6 +8,13 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -16,14 +23,19 @@ import com.ibm.team.repository.common.TeamRepositoryException;
 import com.ibm.team.scm.common.IComponentHandle;
 import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
 import com.rus.jazz.tool.analyzescmcontent.analyze.ComponentAnalyzer;
-import com.rus.jazz.tool.analyzescmcontent.analyze.IAnalyzer;
 import com.rus.jazz.tool.analyzescmcontent.analyze.Result;
 import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ComponentDAO;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ContentBudget;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ComponentOwnerResolver;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.PersistentCache;
 import com.rus.jazz.tool.analyzescmcontent.analyze.modules.IModule;
 import com.rus.jazz.tool.analyzescmcontent.analyze.modules.ModuleManager;
+import com.rus.jazz.tool.analyzescmcontent.analyze.modules.file.AbstractFileModule;
+import com.rus.jazz.tool.analyzescmcontent.analyze.modules.file.ContentResultCache;
 import com.rus.jazz.tool.analyzescmcontent.output.AnalyzeOutput;
 import com.rus.jazz.tool.analyzescmcontent.output.ConsoleOutput;
 import com.rus.jazz.tool.analyzescmcontent.output.ConsoleOutput.State;
+import com.rus.jazz.tool.analyzescmcontent.output.RunStatistics;
 
 /**
  * This class contains the workflow for the components analyzer. In the analyzed
@@ -36,6 +48,8 @@ public class SCMAnalyzer {
 
 	private static final String CONFIG_FILE = "SCMAnalyze.properties";
 
+	private static final String COMPONENT_WORKERS = "SCMAnalyzer.ComponentWorkers";
+
 	/**
 	 * Constructor
 	 * 
@@ -102,33 +116,100 @@ public class SCMAnalyzer {
 			final List<ComponentAnalyzer> components = findComponentsInRepository(csv);
 			ConsoleOutput.updateMessage("Identify components that has to been analyzed", State.SUCCESS);
 
-			// create the result object
-			final Result result = new Result();
-
-			int numberAnalyzed = 0;
-			for (final IAnalyzer component : components) {
-				final String name = ((ComponentDAO) component.getDAO()).getComponent().getName();
-				ConsoleOutput.printMessageWithProgressBarAndPercentage("Component \'" + name + "\' analyzed!",
-						State.SUCCESS, 0, 100, numberAnalyzed, components.size());
+			// analyze the components
+			final int workers = SCMAnalyzeParameter.getInstance().getIntegerProperty(COMPONENT_WORKERS, 1);
+			if (workers > 1) {
+				analyzeInParallel(components, workers);
+			} else {
+				int numberAnalyzed = 0;
+				for (final ComponentAnalyzer component : components) {
+					final String name = ((ComponentDAO) component.getDAO()).getComponent().getName();
+					ConsoleOutput.printMessageWithProgressBarAndPercentage("Component \'" + name + "\' analyzed!",
+							State.SUCCESS, 0, 100, numberAnalyzed, components.size());
 
-				// analyze
-				component.analyse(result);
+					// analyze
+					component.analyse(new Result());
 
-				numberAnalyzed++;
-				ConsoleOutput.updateMessageWithProgressBarAndPercentage("Component \'" + name + "\' analyzed!",
-						State.SUCCESS, 100, 100, numberAnalyzed, components.size());
+					numberAnalyzed++;
+					ConsoleOutput.updateMessageWithProgressBarAndPercentage("Component \'" + name + "\' analyzed!",
+							State.SUCCESS, 100, 100, numberAnalyzed, components.size());
+				}
 			}
 
-			// close the output file
+			// close the output file, the incremental state was saved with the
+			// last commit
 			csv.close();
+			csv.getJournal().finish();
+			PersistentCache.getInstance().close();
 
 			ConsoleOutput.printMessage("Finish SCM Analyze");
+			ContentResultCache.getInstance().publishHitRate();
+			ContentBudget.getInstance().publishUtilization();
+			for (final AbstractFileModule module : ModuleManager.getInstance().getFileModules()) {
+				module.publishStatistics();
+			}
+			RunStatistics.getInstance().printSummary();
 		} catch (Exception exception) {
 			ConsoleOutput.printMessage("Aborting analyze due to an error");
 			ConsoleOutput.printException(exception);
 		}
 	}
 
+	/**
+	 * Analyze several components at the same time. Every component starts
+	 * with a result of its own. If the analyze of a component fails, the
+	 * components still running are interrupted.
+	 * 
+	 * @param components
+	 *            the components
+	 * @param workers
+	 *            number of components analyzed at the same time
+	 * @throws AnalyzeException
+	 */
+	private void analyzeInParallel(final List<ComponentAnalyzer> components, final int workers)
+			throws AnalyzeException {
+		LOGGER.info("Analyze " + components.size() + " components with " + workers + " workers");
+		final ExecutorService executor = Executors.newFixedThreadPool(workers);
+		final AtomicInteger numberAnalyzed = new AtomicInteger();
+		try {
+			final CompletionService<Void> completion = new ExecutorCompletionService<Void>(executor);
+			for (final ComponentAnalyzer component : components) {
+				completion.submit(new Callable<Void>() {
+					@Override
+					public Void call() throws AnalyzeException {
+						final String name = ((ComponentDAO) component.getDAO()).getComponent().getName();
+						ConsoleOutput.printMessageWithProgressBarAndPercentage("Component \'" + name
+								+ "\' analyzed!", State.EXECUTING, 0, 100, numberAnalyzed.get(), components.size());
+
+						// analyze
+						component.analyse(new Result());
+
+						ConsoleOutput.printMessageWithProgressBarAndPercentage("Component \'" + name
+								+ "\' analyzed!", State.SUCCESS, 100, 100, numberAnalyzed.incrementAndGet(),
+								components.size());
+						return null;
+					}
+				});
+			}
+
+			// wait in the order of completion, so the first failure stops the
+			// running components at once
+			for (int i = 0; i < components.size(); i++) {
+				completion.take().get();
+			}
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new AnalyzeException("Analyze of the components interrupted", exception);
+		} catch (ExecutionException exception) {
+			if (exception.getCause() instanceof AnalyzeException) {
+				throw (AnalyzeException) exception.getCause();
+			}
+			throw new AnalyzeException(exception.getCause().getMessage(), exception.getCause());
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
 	/**
 	 * Add a new analyze module to the analyzer. The analyze module will be
 	 * executed for each row of the analyze.
@@ -184,6 +265,16 @@ public class SCMAnalyzer {
 			throw new AnalyzeException(e.getMessage(), e);
 		}
 
+		// resolve the owners of all components together
+		if (ModuleManager.getInstance().isComponentOwnerRequired()) {
+			try {
+				ComponentOwnerResolver.getInstance().resolve(components);
+			} catch (AnalyzeException exception) {
+				// the owners will be resolved for each component separately
+				LOGGER.warn("Unable to resolve the owners of all components together", exception);
+			}
+		}
+
 		final List<ComponentAnalyzer> result = new ArrayList<ComponentAnalyzer>();
 		for (final IComponentHandle componentHandle : components) {
 			result.add(new ComponentAnalyzer(componentHandle, output));
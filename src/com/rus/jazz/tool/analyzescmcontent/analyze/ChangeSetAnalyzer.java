@@ -1,6 +1,8 @@
 package com.rus.jazz.tool.analyzescmcontent.analyze;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
 
 import com.ibm.team.scm.common.IChangeSetHandle;
 import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ChangeSetDAO;
@@ -44,23 +46,83 @@ public class ChangeSetAnalyzer implements IAnalyzer {
 	 * .jazz.tool.analyze.components.analyze.Result)
 	 */
 	public void analyse(final Result result) throws AnalyzeException {
+		for (final Result row : analyseRows(result)) {
+			output.addResult(row);
+		}
+	}
+
+	/**
+	 * Analyze the change set and return its rows. There is one row for each
+	 * file, if there are modules on file level, otherwise one row for the
+	 * change set itself.
+	 * 
+	 * @param result
+	 *            the results of the component
+	 * @return the rows of the change set
+	 * @throws AnalyzeException
+	 */
+	public List<Result> analyseRows(final Result result) throws AnalyzeException {
+		final List<Result> rows = new ArrayList<Result>();
+
 		// any case analyze the component itself
-		analyseSelf(result);
+		final Result changeSetResult = new Result(result);
+		analyseSelf(changeSetResult);
 
 		// if there are modules on file level
 		if (!ModuleManager.getInstance().getFileModules().isEmpty()) { // NOPMD
 			final List<FileAnalyzer> files = changeSetDAO.getFilesFromChangeSet();
 
-			for (final FileAnalyzer file : files) {
-				file.analyse(result);
+			final List<Result> fileRows;
+			if (RequestBoundExecutor.getInstance().isEnabled()) {
+				fileRows = analyseInParallel(files, changeSetResult);
+			} else {
+				fileRows = new ArrayList<Result>(files.size());
+				for (final FileAnalyzer file : files) {
+					fileRows.add(file.analyseRow(changeSetResult));
+				}
+			}
+
+			for (final Result row : fileRows) {
+				if (row != null) {
+					rows.add(row);
+				}
 			}
 		} else {
-			output.addResult(result);
+			rows.add(changeSetResult);
 		}
+
+		// all rows of the change set are complete
+		changeSetDAO.release();
+
+		return rows;
 	}
 
 
 
+	/**
+	 * Analyze every file of the change set in a task of its own.
+	 * 
+	 * @param files
+	 *            the files of the change set
+	 * @param result
+	 *            the results of the change set
+	 * @return the rows in the order of the files
+	 * @throws AnalyzeException
+	 */
+	private List<Result> analyseInParallel(final List<FileAnalyzer> files, final Result result)
+			throws AnalyzeException {
+		final List<Callable<Result>> tasks = new ArrayList<Callable<Result>>(files.size());
+		for (final FileAnalyzer file : files) {
+			tasks.add(new Callable<Result>() {
+				@Override
+				public Result call() throws AnalyzeException {
+					return file.analyseRow(result);
+				}
+			});
+		}
+		return RequestBoundExecutor.getInstance().invokeAll(tasks);
+	}
+
 	/**
 	 * Execute all modules on change set level on the change set itself.
 	 * 
@@ -1,12 +1,24 @@
 package com.rus.jazz.tool.analyzescmcontent.analyze;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.ibm.team.scm.common.IChangeSetHandle;
 import com.ibm.team.scm.common.IComponentHandle;
+import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeParameter;
 import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ChangeSetDAO;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ChangeSetStream;
 import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ComponentDAO;
 import com.rus.jazz.tool.analyzescmcontent.analyze.modules.ModuleManager;
 import com.rus.jazz.tool.analyzescmcontent.analyze.modules.component.AbstractComponentModule;
+import com.rus.jazz.tool.analyzescmcontent.analyze.pipeline.IRowSink;
+import com.rus.jazz.tool.analyzescmcontent.analyze.pipeline.Pipeline;
 import com.rus.jazz.tool.analyzescmcontent.output.AnalyzeOutput;
 import com.rus.jazz.tool.analyzescmcontent.output.ConsoleOutput;
 import com.rus.jazz.tool.analyzescmcontent.output.ConsoleOutput.State;
@@ -19,6 +31,10 @@ import com.rus.jazz.tool.analyzescmcontent.output.ConsoleOutput.State;
  */
 public class ComponentAnalyzer implements IAnalyzer {
 
+	private static final Logger LOGGER = LogManager.getLogger(ComponentAnalyzer.class.getName());
+
+	private static final String CHANGESET_WORKERS = "ComponentAnalyzer.ChangeSetWorkers";
+
 	private transient final ComponentDAO componentDAO;
 
 	private transient final AnalyzeOutput output;
@@ -45,28 +61,253 @@ public class ComponentAnalyzer implements IAnalyzer {
 	 */
 	@Override
 	public void analyse(final Result result) throws AnalyzeException {
-		// any case analyze the component itself
-		analyseSelf(result);
+		// skip the component, if it was finished by the resumed run
+		if (output.getJournal().isFinished(componentDAO.getHandle())) {
+			LOGGER.info("Component " + componentDAO.getHandle().getItemId().getUuidValue() + " already analyzed");
+		} else {
+			final List<Result> rows = new ArrayList<Result>();
+
+			// any case analyze the component itself
+			final Result componentResult = new Result(result);
+			analyseSelf(componentResult);
+
+			// if there are modules on change set or file level
+			if (hasChangeSetOrFileModules()) {
+				analyseChangeSets(componentResult);
+			} else {
+				rows.add(componentResult);
+			}
+
+			output.addComponentResults(componentDAO.getHandle(), rows);
+			output.commit();
+		}
+	}
+
+	private void analyseChangeSets(final Result result) throws AnalyzeException {
+		if (Pipeline.isEnabled()) {
+			analysePipelined(result);
+		} else {
+			analysePaged(result);
+		}
+	}
 
-		// if there are modules on change set or file level
-		if (hasChangeSetOrFileModules()) {
+	/**
+	 * Analyze the change sets in the stages of a pipeline. This thread only
+	 * discovers the change sets and passes them page by page into the
+	 * pipeline.
+	 * 
+	 * @param result
+	 *            the results of the component
+	 * @throws AnalyzeException
+	 */
+	private void analysePipelined(final Result result) throws AnalyzeException {
+		final Pipeline pipeline = new Pipeline(componentDAO, result, new IRowSink() {
+			@Override
+			public void addRows(final ChangeSetAnalyzer analyzer, final List<Result> rows) throws AnalyzeException {
+				ComponentAnalyzer.this.addRows(analyzer, rows);
+			}
 
-			// analyze all change sets
-			final List<ChangeSetAnalyzer> changeSets = componentDAO.getChangeSetsForComponent();
+			@Override
+			public void commit() throws AnalyzeException {
+				output.commit();
+			}
+		});
+
+		try {
+			int discovered = 0;
+			if (componentDAO.isStreamingEnabled()) {
+				final ChangeSetStream stream = componentDAO.streamChangeSetsForComponent();
+				try {
+					List<IChangeSetHandle> page = stream.nextPage();
+					while (page != null) {
+						showProgress("ChangeSets in the pipeline", discovered, -1);
+						pipeline.submit(removeFinished(page));
+						discovered += page.size();
+						page = stream.nextPage();
+					}
+				} finally {
+					stream.close();
+				}
+			} else {
+				final List<IChangeSetHandle> handles = componentDAO.getChangeSetHandles();
+				final int batchSize = componentDAO.getChangeSetBatchSize();
+				for (int start = 0; start < handles.size(); start += batchSize) {
+					final List<IChangeSetHandle> page = handles.subList(start,
+							Math.min(handles.size(), start + batchSize));
+					showProgress("ChangeSets in the pipeline", start, handles.size());
+					pipeline.submit(removeFinished(page));
+				}
+			}
+		} catch (AnalyzeException exception) {
+			pipeline.fail(exception);
+		}
+		pipeline.finish();
+	}
+
+	private void analysePaged(final Result result) throws AnalyzeException {
+		final int workers = SCMAnalyzeParameter.getInstance().getIntegerProperty(CHANGESET_WORKERS, 1);
+		ForkJoinPool pool = null;
+		if (workers > 1 && !RequestBoundExecutor.getInstance().isEnabled()) {
+			pool = new ForkJoinPool(workers);
+		}
+		try {
+			if (componentDAO.isStreamingEnabled()) {
+				analyseStreamed(result, pool);
+			} else {
+				// analyze all change sets, fetched in pages
+				final List<IChangeSetHandle> handles = componentDAO.getChangeSetHandles();
+				final int batchSize = componentDAO.getChangeSetBatchSize();
+				int finished = 0;
+				for (int start = 0; start < handles.size(); start += batchSize) {
+					final List<IChangeSetHandle> page = handles.subList(start,
+							Math.min(handles.size(), start + batchSize));
+					final List<IChangeSetHandle> open = removeFinished(page);
+					finished += page.size() - open.size();
+					final List<ChangeSetAnalyzer> analyzers = componentDAO.createChangeSetAnalyzers(open);
+					analysePage(analyzers, result, pool, finished, handles.size());
+					finished += analyzers.size();
+					output.commit();
+				}
+			}
+		} finally {
+			if (pool != null) {
+				pool.shutdown();
+			}
+		}
+	}
+
+	/**
+	 * Analyze the change sets page by page, while the next pages are searched
+	 * in the background.
+	 * 
+	 * @param result
+	 * @param pool
+	 *            pool for analyzing the change sets of a page in parallel or
+	 *            null
+	 * @throws AnalyzeException
+	 */
+	private void analyseStreamed(final Result result, final ForkJoinPool pool) throws AnalyzeException {
+		final ChangeSetStream stream = componentDAO.streamChangeSetsForComponent();
+		try {
 			int finished = 0;
-			for (final ChangeSetAnalyzer analyzer : changeSets) {
-				final String comment = ((ChangeSetDAO) analyzer.getDAO()).getChangeSet().getComment();
-				ConsoleOutput.updateMessageWithProgressBar("Analyze ChangeSet \'" + comment + "\'", State.EXECUTING,
-						finished, changeSets.size());
+			List<IChangeSetHandle> page = stream.nextPage();
+			while (page != null) {
+				final List<IChangeSetHandle> open = removeFinished(page);
+				final List<ChangeSetAnalyzer> analyzers = componentDAO.createChangeSetAnalyzers(open);
+				analysePage(analyzers, result, pool, finished, -1);
+				finished += analyzers.size();
+				output.commit();
+				page = stream.nextPage();
+			}
+			LOGGER.info(finished + " change sets in component " + componentDAO.getComponent().getName()
+					+ " analyzed");
+		} finally {
+			stream.close();
+		}
+	}
+
+	/**
+	 * Analyze the change sets of a page. With a pool or the request bound
+	 * executor the change sets are analyzed in parallel, but the rows are
+	 * written in the order of the page.
+	 * 
+	 * @param analyzers
+	 *            the change sets of the page
+	 * @param result
+	 *            the results of the component
+	 * @param pool
+	 *            pool for analyzing the change sets in parallel or null
+	 * @param finished
+	 *            number of change sets analyzed before this page
+	 * @param total
+	 *            total number of change sets or -1, if unknown
+	 * @throws AnalyzeException
+	 */
+	private void analysePage(final List<ChangeSetAnalyzer> analyzers, final Result result, final ForkJoinPool pool,
+			final int finished, final int total) throws AnalyzeException {
+		if (RequestBoundExecutor.getInstance().isEnabled() && !analyzers.isEmpty()) {
+			showProgress(analyzers.size() + " ChangeSets", finished, total);
+
+			// one task per change set, limited by the server requests only
+			final List<Callable<List<Result>>> tasks = new ArrayList<Callable<List<Result>>>(analyzers.size());
+			for (final ChangeSetAnalyzer analyzer : analyzers) {
+				tasks.add(new Callable<List<Result>>() {
+					@Override
+					public List<Result> call() throws AnalyzeException {
+						return analyzer.analyseRows(result);
+					}
+				});
+			}
+			final List<List<Result>> rows = RequestBoundExecutor.getInstance().invokeAll(tasks);
+			for (int i = 0; i < analyzers.size(); i++) {
+				addRows(analyzers.get(i), rows.get(i));
+			}
+		} else if (pool == null) {
+			int number = finished;
+			for (final ChangeSetAnalyzer analyzer : analyzers) {
+				final String comment = ((ChangeSetDAO) analyzer.getDAO()).getComment();
+				showProgress("ChangeSet \'" + comment + "\'", number, total);
 
 				// analyze
-				analyzer.analyse(result);
+				addRows(analyzer, analyzer.analyseRows(result));
 
-				finished++;
+				number++;
+			}
+		} else if (!analyzers.isEmpty()) {
+			showProgress(analyzers.size() + " ChangeSets", finished, total);
+
+			// analyze in parallel and write the rows in the order of the page
+			final List<List<Result>> rows;
+			try {
+				rows = pool.invoke(new ChangeSetTask(analyzers, result));
+			} catch (ChangeSetException exception) {
+				throw exception.getCause();
 			}
+			for (int i = 0; i < analyzers.size(); i++) {
+				addRows(analyzers.get(i), rows.get(i));
+			}
+		}
+	}
+
+	private void showProgress(final String subject, final int finished, final int total) {
+		if (total < 0) {
+			ConsoleOutput.updateMessage("Analyze " + subject + " after " + finished + " ChangeSets", State.EXECUTING);
 		} else {
-			output.addResult(result);
+			ConsoleOutput.updateMessageWithProgressBar("Analyze " + subject, State.EXECUTING, finished, total);
+		}
+	}
+
+	/**
+	 * Remove the change sets, which were finished by the resumed run.
+	 * 
+	 * @param page
+	 *            page of change sets
+	 * @return the change sets, which still have to be analyzed
+	 */
+	private List<IChangeSetHandle> removeFinished(final List<IChangeSetHandle> page) {
+		final List<IChangeSetHandle> result = new ArrayList<IChangeSetHandle>(page.size());
+		for (final IChangeSetHandle handle : page) {
+			if (!output.getJournal().isFinished(componentDAO.getHandle(), handle)) {
+				result.add(handle);
+			}
 		}
+		return result;
+	}
+
+	/**
+	 * Write the rows of an analyzed change set. The high-water mark of the
+	 * component is moved forward with the rows, if the run is incremental.
+	 * 
+	 * @param analyzer
+	 *            the analyzed change set
+	 * @param rows
+	 *            the rows of the change set
+	 * @throws AnalyzeException
+	 */
+	private void addRows(final ChangeSetAnalyzer analyzer, final List<Result> rows) throws AnalyzeException {
+		final ChangeSetDAO changeSetDAO = (ChangeSetDAO) analyzer.getDAO();
+		output.addChangeSetResults(componentDAO.getHandle(), changeSetDAO.getHandle(),
+				changeSetDAO.getLastChangeDate(), rows);
 	}
 
 	private boolean hasChangeSetOrFileModules() {
@@ -94,4 +335,74 @@ public class ComponentAnalyzer implements IAnalyzer {
 		return componentDAO;
 	}
 
+	/**
+	 * Analyze a part of the change sets of a page. The part is split, until
+	 * every task analyzes a single change set. The rows are returned in the
+	 * order of the change sets.
+	 */
+	private static class ChangeSetTask extends RecursiveTask<List<List<Result>>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private transient final List<ChangeSetAnalyzer> analyzers;
+
+		private transient final Result result;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param analyzers
+		 *            the change sets
+		 * @param result
+		 *            the results of the component
+		 */
+		ChangeSetTask(final List<ChangeSetAnalyzer> analyzers, final Result result) {
+			super();
+			this.analyzers = analyzers;
+			this.result = result;
+		}
+
+		@Override
+		protected List<List<Result>> compute() {
+			final List<List<Result>> rows = new ArrayList<List<Result>>(analyzers.size());
+			if (analyzers.size() == 1) {
+				try {
+					rows.add(analyzers.get(0).analyseRows(result));
+				} catch (AnalyzeException exception) {
+					throw new ChangeSetException(exception);
+				}
+			} else {
+				final int middle = analyzers.size() / 2;
+				final ChangeSetTask first = new ChangeSetTask(analyzers.subList(0, middle), result);
+				final ChangeSetTask second = new ChangeSetTask(analyzers.subList(middle, analyzers.size()), result);
+				invokeAll(first, second);
+				rows.addAll(first.join());
+				rows.addAll(second.join());
+			}
+			return rows;
+		}
+	}
+
+	/**
+	 * Transports an AnalyzeException out of the fork join pool.
+	 */
+	private static class ChangeSetException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param cause
+		 */
+		ChangeSetException(final AnalyzeException cause) {
+			super(cause);
+		}
+
+		@Override
+		public synchronized AnalyzeException getCause() {
+			return (AnalyzeException) super.getCause();
+		}
+	}
+
 }
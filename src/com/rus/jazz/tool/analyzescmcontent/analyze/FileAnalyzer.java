@@ -1,7 +1,5 @@
 package com.rus.jazz.tool.analyzescmcontent.analyze;
 
-import com.ibm.team.filesystem.common.IFileItem;
-import com.ibm.team.scm.common.IVersionable;
 import com.ibm.team.scm.common.IVersionableHandle;
 import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ChangeSetDAO;
 import com.rus.jazz.tool.analyzescmcontent.analyze.dao.VersionableDAO;
@@ -42,15 +40,34 @@ public class FileAnalyzer implements IAnalyzer {
 	 * .jazz.tool.analyze.components.analyze.Result)
 	 */
 	public void analyse(final Result result) throws AnalyzeException {
+		final Result row = analyseRow(result);
+		if (row != null) {
+			output.addResult(row);
+		}
+	}
+
+	/**
+	 * Analyze the file and return its row.
+	 * 
+	 * @param result
+	 *            the results of the change set
+	 * @return the row of the file or null, if the versionable is not a file
+	 * @throws AnalyzeException
+	 */
+	public Result analyseRow(final Result result) throws AnalyzeException {
 		// any case analyze the component itself
-		analyseSelf(result);
+		Result row = new Result(result);
+		analyseSelf(row);
 
-		// if versionable is not a file do nothing, otherwise print
-		final IVersionable versionable = fileDAO.getVersionable();
-		if (versionable != null && versionable instanceof IFileItem) { // NOPMD
-			output.addResult(result);
+		// if versionable is not a file there is no row
+		if (!fileDAO.isFile()) {
+			row = null;
 		}
 
+		// the row of the file is complete
+		fileDAO.release();
+
+		return row;
 	}
 
 	/**
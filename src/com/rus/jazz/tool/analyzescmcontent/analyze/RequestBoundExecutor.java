@@ -0,0 +1,123 @@
+package com.rus.jazz.tool.analyzescmcontent.analyze;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeParameter;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ServerRequestLimiter;
+
+/**
+ * Executes the analyze of change sets and files, that is mostly waiting for
+ * the repository, with one thread per task. The threads are not limited by a
+ * pool size, only the requests to the repository are limited by the
+ * {@link ServerRequestLimiter}. Idle threads are reused and end after a minute.
+ * Without a limit of the server requests the executor is not enabled.
+ */
+public final class RequestBoundExecutor {
+
+	private static final Logger LOGGER = LogManager.getLogger(RequestBoundExecutor.class.getName());
+
+	private static final String ENABLED = "RequestBoundExecutor.Enabled";
+
+	private static RequestBoundExecutor instance;
+
+	private transient final ExecutorService executor;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param enabled
+	 *            true, if the tasks are executed in parallel
+	 */
+	private RequestBoundExecutor(final boolean enabled) {
+		if (enabled) {
+			final AtomicInteger number = new AtomicInteger();
+			executor = Executors.newCachedThreadPool(new ThreadFactory() {
+				@Override
+				public Thread newThread(final Runnable runnable) {
+					final Thread thread = new Thread(runnable, "analyze-" + number.incrementAndGet());
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+		} else {
+			executor = null;
+		}
+	}
+
+	/**
+	 * Return the instance of the executor. The instance will be created with
+	 * the first call.
+	 * 
+	 * @return request bound executor
+	 */
+	public static synchronized RequestBoundExecutor getInstance() {
+		if (instance == null) {
+			boolean enabled = Boolean.parseBoolean(SCMAnalyzeParameter.getInstance().getConfiguration()
+					.getProperty(ENABLED, "false").trim());
+			if (enabled && !ServerRequestLimiter.getInstance().isLimited()) {
+				LOGGER.warn(ENABLED + " is ignored, because the server requests are not limited by "
+						+ "ServerRequestLimiter.MaxRequests");
+				enabled = false;
+			}
+			instance = new RequestBoundExecutor(enabled);
+		}
+		return instance;
+	}
+
+	/**
+	 * Return, if the tasks are executed in parallel.
+	 * 
+	 * @return true, if the executor is enabled
+	 */
+	public boolean isEnabled() {
+		return executor != null;
+	}
+
+	/**
+	 * Execute all tasks at the same time and wait for them. If a task fails,
+	 * the others are cancelled.
+	 * 
+	 * @param tasks
+	 *            the tasks
+	 * @return the results in the order of the tasks
+	 * @throws AnalyzeException
+	 */
+	public <T> List<T> invokeAll(final List<Callable<T>> tasks) throws AnalyzeException {
+		final List<Future<T>> futures = new ArrayList<Future<T>>(tasks.size());
+		try {
+			for (final Callable<T> task : tasks) {
+				futures.add(executor.submit(task));
+			}
+
+			final List<T> result = new ArrayList<T>(tasks.size());
+			for (final Future<T> future : futures) {
+				result.add(future.get());
+			}
+			return result;
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new AnalyzeException("Analyze interrupted", exception);
+		} catch (ExecutionException exception) {
+			if (exception.getCause() instanceof AnalyzeException) {
+				throw (AnalyzeException) exception.getCause();
+			}
+			throw new AnalyzeException(exception.getCause().getMessage(), exception.getCause());
+		} finally {
+			for (final Future<T> future : futures) {
+				future.cancel(true);
+			}
+		}
+	}
+
+}
@@ -24,6 +24,18 @@ public class Result {
 		results = new HashMap<String, String>();
 	}
 
+	/**
+	 * Constructor for the result of a row. The row starts with the results of
+	 * the parent level, e.g. of the component for a change set row. Changes of
+	 * the row do not affect the parent.
+	 * 
+	 * @param parent
+	 *            the results of the parent level
+	 */
+	public Result(final Result parent) {
+		results = new HashMap<String, String>(parent.results);
+	}
+
 	/**
 	 * Add a new result for a module. Each module can only story one result. If
 	 * the method is called more oftern for the same module, only the last
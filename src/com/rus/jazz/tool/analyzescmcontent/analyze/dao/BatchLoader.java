@@ -0,0 +1,112 @@
+package com.rus.jazz.tool.analyzescmcontent.analyze.dao;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.ibm.team.repository.common.TeamRepositoryException;
+import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
+
+/**
+ * Fetch a list of items in chunks from a batch source. Instead of one request
+ * per item only one request per chunk will be executed. The loader counts the
+ * executed requests, so that the number of saved round trips can be reported.
+ * 
+ * @param <H>
+ *            type of the handles
+ * @param <T>
+ *            type of the fetched items
+ */
+public class BatchLoader<H, T> {
+
+	private transient final IBatchSource<H, T> source;
+
+	private transient final int batchSize;
+
+	private transient final AtomicLong roundTrips;
+
+	private transient final AtomicLong fetchedItems;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param source
+	 *            source that fetches one chunk
+	 * @param batchSize
+	 *            maximal number of items per request. Must be higher than 0.
+	 */
+	public BatchLoader(final IBatchSource<H, T> source, final int batchSize) {
+		if (batchSize <= 0) {
+			throw new IllegalArgumentException("Batch size must be higher than 0");
+		}
+		this.source = source;
+		this.batchSize = batchSize;
+		roundTrips = new AtomicLong();
+		fetchedItems = new AtomicLong();
+	}
+
+	/**
+	 * Fetch the items for all handles. The handles will be split in chunks of
+	 * the configured batch size.
+	 * 
+	 * @param handles
+	 *            handles of the items
+	 * @return fetched items in the order of the handles, null for items that
+	 *         could not be fetched
+	 * @throws AnalyzeException
+	 */
+	public List<T> load(final List<H> handles) throws AnalyzeException {
+		final List<T> result = new ArrayList<T>(handles.size());
+
+		for (int start = 0; start < handles.size(); start += batchSize) {
+			final List<H> chunk = handles.subList(start, Math.min(start + batchSize, handles.size()));
+			final List<T> items;
+			ServerRequestLimiter.getInstance().acquire();
+			try {
+				items = source.fetch(chunk);
+			} catch (TeamRepositoryException exception) {
+				throw new AnalyzeException(exception.getMessage(), exception);
+			} finally {
+				ServerRequestLimiter.getInstance().release();
+			}
+			roundTrips.incrementAndGet();
+			fetchedItems.addAndGet(chunk.size());
+
+			if (items == null || items.size() != chunk.size()) {
+				throw new AnalyzeException("Batch source returned " + (items == null ? 0 : items.size())
+						+ " items for " + chunk.size() + " handles");
+			}
+			result.addAll(items);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Return the number of requests executed by this loader.
+	 * 
+	 * @return number of round trips
+	 */
+	public long getRoundTrips() {
+		return roundTrips.get();
+	}
+
+	/**
+	 * Return the number of items fetched by this loader.
+	 * 
+	 * @return number of items
+	 */
+	public long getFetchedItems() {
+		return fetchedItems.get();
+	}
+
+	/**
+	 * Return the number of round trips saved compared to one request per item.
+	 * 
+	 * @return saved round trips
+	 */
+	public long getSavedRoundTrips() {
+		return fetchedItems.get() - roundTrips.get();
+	}
+
+}
@@ -1,25 +1,32 @@
 package com.rus.jazz.tool.analyzescmcontent.analyze.dao;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import com.ibm.team.filesystem.common.IFileItemHandle;
 import com.ibm.team.repository.client.IItemManager;
-import com.ibm.team.repository.client.internal.ItemManager;
 import com.ibm.team.repository.common.IContributor;
 import com.ibm.team.repository.common.IContributorHandle;
 import com.ibm.team.repository.common.TeamRepositoryException;
 import com.ibm.team.scm.common.IChange;
 import com.ibm.team.scm.common.IChangeSet;
 import com.ibm.team.scm.common.IChangeSetHandle;
+import com.ibm.team.scm.common.IVersionable;
 import com.ibm.team.scm.common.IVersionableHandle;
+import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeParameter;
 import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeServerConnection;
 import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
 import com.rus.jazz.tool.analyzescmcontent.analyze.FileAnalyzer;
+import com.rus.jazz.tool.analyzescmcontent.analyze.modules.IModule.Level;
+import com.rus.jazz.tool.analyzescmcontent.analyze.modules.ModuleManager;
 import com.rus.jazz.tool.analyzescmcontent.output.AnalyzeOutput;
+import com.rus.jazz.tool.analyzescmcontent.output.RunStatistics;
 
 /**
  * DAO for a change set. This class is responsible, that every access to the
@@ -29,10 +36,16 @@ public class ChangeSetDAO {
 
 	private static final Logger LOGGER = LogManager.getLogger(ChangeSetDAO.class.getName());
 
+	private static final String VERSIONABLE_BATCH_SIZE = "VersionableDAO.BatchSize";
+
+	private static final int DEFAULT_VERSIONABLE_BATCH_SIZE = 512;
+
 	private transient final IChangeSetHandle handle;
 
 	private transient IChangeSet changeSet;
 
+	private transient ChangeSetRecord record;
+
 	private transient IContributor author;
 
 	private transient final ComponentDAO componentDAO;
@@ -41,6 +54,8 @@ public class ChangeSetDAO {
 
 	private transient List<FileAnalyzer> files;
 
+	private transient Date lastChangeDate;
+
 	/**
 	 * Constructor
 	 * 
@@ -74,8 +89,15 @@ public class ChangeSetDAO {
 	public IChangeSet getChangeSet() throws AnalyzeException {
 		if (changeSet == null) {
 			try {
-				changeSet = (IChangeSet) SCMAnalyzeServerConnection.getInstance().getItemManager()
-						.fetchCompleteItem(handle, IItemManager.DEFAULT, null);
+				final IItemManager itemManager = SCMAnalyzeServerConnection.getInstance().getItemManager();
+				final Set<String> properties = getFetchProperties();
+				if (properties == null) {
+					changeSet = (IChangeSet) itemManager.fetchCompleteItem(handle, IItemManager.DEFAULT, null);
+				} else {
+					changeSet = (IChangeSet) itemManager.fetchPartialItem(handle, IItemManager.DEFAULT, properties,
+							null);
+				}
+				remember(changeSet);
 			} catch (TeamRepositoryException exception) {
 				throw new AnalyzeException(exception.getMessage(), exception);
 			}
@@ -84,21 +106,137 @@ public class ChangeSetDAO {
 	}
 
 	/**
-	 * Fetch the author contributor item of the change set from the jazz
-	 * repository
+	 * Return the properties of the change set that are read by the registered
+	 * modules and by the analyzers themselves.
+	 * 
+	 * @return property names or null for the complete change set
+	 */
+	static Set<String> getFetchProperties() {
+		final ModuleManager manager = ModuleManager.getInstance();
+		final Set<String> result = ItemProperties.merge(manager.getRequiredProperties(Level.CHANGE_SET),
+				ItemProperties.COMPLETE, ItemProperties.COMMENT);
+
+		if (result != null) {
+			if (!manager.getFileModules().isEmpty()) {
+				result.add(ItemProperties.CHANGES);
+			}
+			if (manager.isAuthorRequired()) {
+				result.add(ItemProperties.AUTHOR);
+			}
+			if (SCMAnalyzeParameter.getInstance().isIncremental()) {
+				// the high-water mark of the component
+				result.add(ItemProperties.LAST_CHANGE_DATE);
+			}
+			if (PersistentCache.getInstance().isEnabled()) {
+				// the record of the persistent cache contains all values
+				result.addAll(ItemProperties.of(ItemProperties.COMMENT, ItemProperties.LAST_CHANGE_DATE,
+						ItemProperties.COMPLETE, ItemProperties.AUTHOR, ItemProperties.CHANGES));
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Set the change set object, if it was already fetched together with other
+	 * change sets.
+	 * 
+	 * @param changeSet
+	 *            the fetched change set object
+	 */
+	void setChangeSet(final IChangeSet changeSet) {
+		this.changeSet = changeSet;
+		remember(changeSet);
+	}
+
+	/**
+	 * Read the values of the change set from the persistent cache.
+	 * 
+	 * @return true, if the change set was found in the cache
+	 */
+	boolean loadRecord() {
+		final byte[] bytes = PersistentCache.getInstance().get(ChangeSetRecord.getKey(handle.getItemId()));
+		if (bytes != null) {
+			try {
+				record = ChangeSetRecord.fromBytes(bytes);
+			} catch (IOException exception) {
+				LOGGER.warn("Change set " + handle.getItemId().getUuidValue() + " could not be read from cache",
+						exception);
+			}
+		}
+		return record != null;
+	}
+
+	/**
+	 * Store the values of a complete change set in the persistent cache.
+	 * Change sets that are not complete can still be changed and are not
+	 * stored.
+	 */
+	private void remember(final IChangeSet changeSet) {
+		if (PersistentCache.getInstance().isEnabled() && changeSet.isComplete()) {
+			record = ChangeSetRecord.of(changeSet);
+			try {
+				PersistentCache.getInstance().put(ChangeSetRecord.getKey(handle.getItemId()), record.toBytes());
+			} catch (IOException exception) {
+				LOGGER.warn("Change set " + handle.getItemId().getUuidValue() + " could not be cached", exception);
+			}
+		}
+	}
+
+	/**
+	 * Return the comment of the change set.
+	 * 
+	 * @return comment
+	 * @throws AnalyzeException
+	 */
+	public String getComment() throws AnalyzeException {
+		return record == null ? getChangeSet().getComment() : record.getComment();
+	}
+
+	/**
+	 * Return the last change date of the change set.
+	 * 
+	 * @return last change date
+	 * @throws AnalyzeException
+	 */
+	public Date getLastChangeDate() throws AnalyzeException {
+		Date result = lastChangeDate;
+		if (result == null) {
+			result = record == null ? getChangeSet().getLastChangeDate() : record.getLastChangeDate();
+		}
+		return result;
+	}
+
+	/**
+	 * Return, if the change set is complete.
+	 * 
+	 * @return true, if the change set is complete
+	 * @throws AnalyzeException
+	 */
+	public boolean isComplete() throws AnalyzeException {
+		return record == null ? getChangeSet().isComplete() : record.isComplete();
+	}
+
+	/**
+	 * Return the handle of the author of the change set.
+	 * 
+	 * @return author handle
+	 * @throws AnalyzeException
+	 */
+	public IContributorHandle getAuthorHandle() throws AnalyzeException {
+		return record == null ? getChangeSet().getAuthor() : record.getAuthor();
+	}
+
+	/**
+	 * Return the author contributor item of the change set. The contributor is
+	 * read from the contributor cache of the run.
 	 * 
 	 * @return contributor object of the change set author
 	 * @throws AnalyzeException
 	 */
 	public IContributor getAuthor() throws AnalyzeException {
 		if (author == null) {
-			final IContributorHandle authorHandle = changeSet.getAuthor();
-			try {
-				author = (IContributor) SCMAnalyzeServerConnection.getInstance().getItemManager()
-						.fetchCompleteItem(authorHandle, ItemManager.REFRESH, null);
-			} catch (TeamRepositoryException exception) {
-				throw new AnalyzeException(exception.getMessage(), exception);
-			}
+			author = ContributorCache.getInstance().get(getAuthorHandle());
 		}
 		return author;
 	}
@@ -121,20 +259,88 @@ public class ChangeSetDAO {
 	@SuppressWarnings("unchecked")
 	public List<FileAnalyzer> getFilesFromChangeSet() throws AnalyzeException {
 		if (files == null) {
-			final List<IChange> changeList = getChangeSet().changes();
-
 			files = new ArrayList<FileAnalyzer>();
-			for (final IChange iChange : changeList) {
-				final IVersionableHandle handle = iChange.afterState();
-				if (handle instanceof IFileItemHandle) {
+			if (record == null) {
+				final List<IChange> changeList = getChangeSet().changes();
+				for (final IChange iChange : changeList) {
+					final IVersionableHandle handle = iChange.afterState();
+					if (handle instanceof IFileItemHandle) {
+						files.add(new FileAnalyzer(handle, this, output));
+					}
+				}
+			} else {
+				for (final IVersionableHandle handle : record.getFiles()) {
 					files.add(new FileAnalyzer(handle, this, output));
 				}
 			}
 
-			LOGGER.info(files.size() + " Files identified in Change Set " + getChangeSet().getComment());
+			LOGGER.info(files.size() + " Files identified in Change Set " + getComment());
+
+			// fetch the states of all files together if they will be analyzed
+			if (!ModuleManager.getInstance().getFileModules().isEmpty()) {
+				fetchVersionables(files);
+			}
 		}
 
 		return files;
 	}
 
+	/**
+	 * Release the change set object, the author and the files of the change
+	 * set after the change set was analyzed. Only the handle is kept and in an
+	 * incremental run the last change date, which moves the high-water mark.
+	 */
+	public void release() {
+		if (SCMAnalyzeParameter.getInstance().isIncremental()) {
+			if (record != null) {
+				lastChangeDate = record.getLastChangeDate();
+			} else if (changeSet != null) {
+				lastChangeDate = changeSet.getLastChangeDate();
+			}
+		}
+		changeSet = null;
+		record = null;
+		author = null;
+		files = null;
+	}
+
+	/**
+	 * Fetch the versionable states of the files with a batch loader and fill
+	 * the versionable DAOs with them.
+	 * 
+	 * @param fileAnalyzers
+	 *            file analyzers of the change set
+	 * @throws AnalyzeException
+	 */
+	private void fetchVersionables(final List<FileAnalyzer> fileAnalyzers) throws AnalyzeException {
+		// only the states, that are not in the persistent cache, are fetched
+		final List<FileAnalyzer> missing = new ArrayList<FileAnalyzer>();
+		final List<IVersionableHandle> handles = new ArrayList<IVersionableHandle>();
+		for (final FileAnalyzer file : fileAnalyzers) {
+			final VersionableDAO dao = (VersionableDAO) file.getDAO();
+			if (!PersistentCache.getInstance().isEnabled() || !dao.loadRecord()) {
+				missing.add(file);
+				handles.add(dao.getHandle());
+			}
+		}
+
+		final int batchSize = SCMAnalyzeParameter.getInstance().getIntegerProperty(VERSIONABLE_BATCH_SIZE,
+				DEFAULT_VERSIONABLE_BATCH_SIZE);
+		final BatchLoader<IVersionableHandle, IVersionable> loader = new BatchLoader<IVersionableHandle, IVersionable>(
+				new VersionableBatchSource(SCMAnalyzeServerConnection.getInstance().getWorkspaceManager()
+						.versionableManager(), VersionableDAO.getFetchProperties()), batchSize);
+		final List<IVersionable> states = loader.load(handles);
+
+		for (int i = 0; i < missing.size(); i++) {
+			final IVersionable state = states.get(i);
+			if (state != null) {
+				((VersionableDAO) missing.get(i).getDAO()).setVersionable(state);
+			}
+		}
+
+		RunStatistics.getInstance().add("Versionables fetched", loader.getFetchedItems());
+		RunStatistics.getInstance().add("Versionable fetch round trips", loader.getRoundTrips());
+		RunStatistics.getInstance().add("Versionable fetch round trips saved", loader.getSavedRoundTrips());
+	}
+
 }
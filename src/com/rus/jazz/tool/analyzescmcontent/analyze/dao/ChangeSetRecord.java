@@ -0,0 +1,159 @@
+package com.rus.jazz.tool.analyzescmcontent.analyze.dao;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import com.ibm.team.filesystem.common.IFileItem;
+import com.ibm.team.filesystem.common.IFileItemHandle;
+import com.ibm.team.repository.common.IContributor;
+import com.ibm.team.repository.common.IContributorHandle;
+import com.ibm.team.repository.common.UUID;
+import com.ibm.team.scm.common.IChange;
+import com.ibm.team.scm.common.IChangeSet;
+import com.ibm.team.scm.common.IVersionableHandle;
+
+/**
+ * The values of a complete change set, that are stored in the persistent
+ * cache. A complete change set can not be changed anymore.
+ */
+final class ChangeSetRecord {
+
+	private transient final String comment;
+
+	private transient final long lastChangeDate;
+
+	private transient final boolean complete;
+
+	private transient final String authorId;
+
+	private transient final List<String[]> files;
+
+	/**
+	 * Constructor.
+	 */
+	private ChangeSetRecord(final String comment, final long lastChangeDate, final boolean complete,
+			final String authorId, final List<String[]> files) {
+		this.comment = comment;
+		this.lastChangeDate = lastChangeDate;
+		this.complete = complete;
+		this.authorId = authorId;
+		this.files = files;
+	}
+
+	/**
+	 * Return the key of a change set in the persistent cache.
+	 * 
+	 * @param itemId
+	 *            item id of the change set
+	 * @return the key
+	 */
+	static String getKey(final UUID itemId) {
+		return "changeSet:" + itemId.getUuidValue();
+	}
+
+	/**
+	 * Create the record of a change set. The change set must contain all
+	 * properties of {@link ChangeSetDAO#getFetchProperties()}.
+	 * 
+	 * @param changeSet
+	 *            the fetched change set
+	 * @return the record
+	 */
+	@SuppressWarnings("unchecked")
+	static ChangeSetRecord of(final IChangeSet changeSet) {
+		final List<String[]> files = new ArrayList<String[]>();
+		for (final IChange change : (List<IChange>) changeSet.changes()) {
+			final IVersionableHandle handle = change.afterState();
+			if (handle instanceof IFileItemHandle) {
+				files.add(new String[] { handle.getItemId().getUuidValue(), handle.getStateId().getUuidValue() });
+			}
+		}
+
+		final Date date = changeSet.getLastChangeDate();
+		final IContributorHandle author = changeSet.getAuthor();
+		return new ChangeSetRecord(changeSet.getComment(), date == null ? -1 : date.getTime(),
+				changeSet.isComplete(), author == null ? null : author.getItemId().getUuidValue(), files);
+	}
+
+	/**
+	 * Read a record from its stored form.
+	 * 
+	 * @param bytes
+	 *            the stored record
+	 * @return the record
+	 * @throws IOException
+	 */
+	static ChangeSetRecord fromBytes(final byte[] bytes) throws IOException {
+		final DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+		final String comment = PersistentCache.readString(input);
+		final long lastChangeDate = input.readLong();
+		final boolean complete = input.readBoolean();
+		final String authorId = PersistentCache.readString(input);
+		final int size = input.readInt();
+		final List<String[]> files = new ArrayList<String[]>(size);
+		for (int i = 0; i < size; i++) {
+			files.add(new String[] { PersistentCache.readString(input), PersistentCache.readString(input) });
+		}
+		return new ChangeSetRecord(comment, lastChangeDate, complete, authorId, files);
+	}
+
+	/**
+	 * Return the stored form of the record.
+	 * 
+	 * @return the stored record
+	 * @throws IOException
+	 */
+	byte[] toBytes() throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream output = new DataOutputStream(bytes);
+		PersistentCache.writeString(output, comment);
+		output.writeLong(lastChangeDate);
+		output.writeBoolean(complete);
+		PersistentCache.writeString(output, authorId);
+		output.writeInt(files.size());
+		for (final String[] file : files) {
+			PersistentCache.writeString(output, file[0]);
+			PersistentCache.writeString(output, file[1]);
+		}
+		output.flush();
+		return bytes.toByteArray();
+	}
+
+	String getComment() {
+		return comment;
+	}
+
+	Date getLastChangeDate() {
+		return lastChangeDate < 0 ? null : new Date(lastChangeDate);
+	}
+
+	boolean isComplete() {
+		return complete;
+	}
+
+	IContributorHandle getAuthor() {
+		return authorId == null ? null : (IContributorHandle) IContributor.ITEM_TYPE.createItemHandle(
+				UUID.valueOf(authorId), null);
+	}
+
+	/**
+	 * Return the handles of the file states after the change set.
+	 * 
+	 * @return file state handles
+	 */
+	List<IVersionableHandle> getFiles() {
+		final List<IVersionableHandle> result = new ArrayList<IVersionableHandle>();
+		for (final String[] file : files) {
+			result.add((IVersionableHandle) IFileItem.ITEM_TYPE.createItemHandle(UUID.valueOf(file[0]),
+					UUID.valueOf(file[1])));
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,339 @@
+package com.rus.jazz.tool.analyzescmcontent.analyze.dao;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+
+import com.ibm.team.repository.client.IItemManager;
+import com.ibm.team.repository.common.TeamRepositoryException;
+import com.ibm.team.repository.common.UUID;
+import com.ibm.team.scm.client.IWorkspaceManager;
+import com.ibm.team.scm.common.IChangeSet;
+import com.ibm.team.scm.common.IChangeSetHandle;
+import com.ibm.team.scm.common.dto.IChangeSetSearchCriteria;
+import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
+
+/**
+ * Execute a change set search. One execution of a change set query can only
+ * return IWorkspaceManager.MAX_QUERY_SIZE change sets. Therefore the search can
+ * either page through the result one page after another, or split the time
+ * window of the search criteria into slices that are queried concurrently.
+ * Both variants return the same change sets in the same order. Every query
+ * takes a permit of the {@link ServerRequestLimiter}.
+ */
+public class ChangeSetSearch {
+
+	private static final Set<String> PAGING_PROPERTIES = ItemProperties.of(ItemProperties.LAST_CHANGE_DATE);
+
+	private transient final IWorkspaceManager workspaceManager;
+
+	private transient final IItemManager itemManager;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param workspaceManager
+	 *            the workspace manager for the queries
+	 * @param itemManager
+	 *            the item manager for fetching the paging dates
+	 */
+	public ChangeSetSearch(final IWorkspaceManager workspaceManager, final IItemManager itemManager) {
+		this.workspaceManager = workspaceManager;
+		this.itemManager = itemManager;
+	}
+
+	/**
+	 * Find all change sets for a given search criteria. The query is executed
+	 * more often with different start dates, until no further change sets can
+	 * be found for the given criteria.
+	 * 
+	 * @param searchCriteria
+	 *            the search criteria
+	 * @param maxResults
+	 *            maximal number of change sets
+	 * @return handles of the change sets without duplicates
+	 * @throws TeamRepositoryException
+	 */
+	public List<IChangeSetHandle> findSerial(final IChangeSetSearchCriteria searchCriteria, final int maxResults)
+			throws TeamRepositoryException {
+		final List<IChangeSetHandle> result = new ArrayList<IChangeSetHandle>();
+		findSerial(searchCriteria, maxResults, new IPageHandler() {
+			@Override
+			public boolean handlePage(final List<IChangeSetHandle> page) {
+				result.addAll(page);
+				return true;
+			}
+		});
+		return result;
+	}
+
+	/**
+	 * Find all change sets for a given search criteria and hand over every
+	 * page to the page handler as soon as it is received. Change sets that
+	 * were already part of a previous page are removed from the page.
+	 * 
+	 * @param searchCriteria
+	 *            the search criteria
+	 * @param maxResults
+	 *            maximal number of change sets
+	 * @param handler
+	 *            receives the pages
+	 * @throws TeamRepositoryException
+	 */
+	public void findSerial(final IChangeSetSearchCriteria searchCriteria, final int maxResults,
+			final IPageHandler handler) throws TeamRepositoryException {
+		int toFetch = maxResults;
+
+		final Set<UUID> ids = new HashSet<UUID>();
+
+		final IChangeSetSearchCriteria pagingCriteria = copy(searchCriteria);
+
+		List<IChangeSetHandle> findResult = query(pagingCriteria, toFetch);
+		boolean proceed = handler.handlePage(removeDuplicates(findResult, ids));
+
+		while (proceed && toFetch > IWorkspaceManager.MAX_QUERY_SIZE
+				&& findResult.size() == IWorkspaceManager.MAX_QUERY_SIZE) {
+			toFetch = toFetch - findResult.size();
+			final IChangeSet lastChangeSet = fetchPagingDate(findResult.get(findResult.size() - 1));
+			// update the modified before/after to get the remaining change sets
+			if (pagingCriteria.isOldestFirst()) {
+				pagingCriteria.setModifiedAfter(new Timestamp(lastChangeSet.getLastChangeDate().getTime()));
+			} else {
+				pagingCriteria.setModifiedBefore(new Timestamp(lastChangeSet.getLastChangeDate().getTime()));
+			}
+
+			findResult = query(pagingCriteria, toFetch);
+			proceed = handler.handlePage(removeDuplicates(findResult, ids));
+		}
+	}
+
+	/**
+	 * Find all change sets for a given search criteria. The time window of the
+	 * criteria is split into slices that are queried concurrently. A slice
+	 * that returns a full page is split again. The results are merged in the
+	 * order of the search criteria.
+	 * 
+	 * @param searchCriteria
+	 *            the search criteria. Modified after and modified before must
+	 *            be defined.
+	 * @param maxResults
+	 *            maximal number of change sets
+	 * @param slices
+	 *            number of slices, also the number of concurrent queries
+	 * @return handles of the change sets without duplicates
+	 * @throws TeamRepositoryException
+	 */
+	public List<IChangeSetHandle> findTimeSliced(final IChangeSetSearchCriteria searchCriteria,
+			final int maxResults, final int slices) throws TeamRepositoryException {
+		final long after = searchCriteria.getModifiedAfter().getTime();
+		final long before = searchCriteria.getModifiedBefore().getTime();
+
+		final ForkJoinPool pool = new ForkJoinPool(slices);
+		try {
+			final List<IChangeSetHandle> result = pool.invoke(new SliceTask(searchCriteria, after, before, slices));
+			return removeDuplicates(result, maxResults);
+		} catch (SliceException exception) {
+			throw exception.getCause();
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Execute one change set query with a permit of the server request limiter.
+	 */
+	@SuppressWarnings("unchecked")
+	private List<IChangeSetHandle> query(final IChangeSetSearchCriteria searchCriteria, final int maxResults)
+			throws TeamRepositoryException {
+		List<IChangeSetHandle> result;
+		acquire();
+		try {
+			result = workspaceManager.findChangeSets(searchCriteria, maxResults, null);
+		} finally {
+			ServerRequestLimiter.getInstance().release();
+		}
+		return result;
+	}
+
+	/**
+	 * Fetch the last change date of a change set with a permit of the server
+	 * request limiter.
+	 */
+	private IChangeSet fetchPagingDate(final IChangeSetHandle handle) throws TeamRepositoryException {
+		IChangeSet result;
+		acquire();
+		try {
+			result = (IChangeSet) itemManager.fetchPartialItem(handle, IItemManager.DEFAULT, PAGING_PROPERTIES,
+					null);
+		} finally {
+			ServerRequestLimiter.getInstance().release();
+		}
+		return result;
+	}
+
+	private static void acquire() throws TeamRepositoryException {
+		try {
+			ServerRequestLimiter.getInstance().acquire();
+		} catch (AnalyzeException exception) {
+			throw new TeamRepositoryException(exception.getMessage(), exception);
+		}
+	}
+
+	private IChangeSetSearchCriteria copy(final IChangeSetSearchCriteria searchCriteria) {
+		return (IChangeSetSearchCriteria) EcoreUtil.copy((EObject) searchCriteria);
+	}
+
+	/**
+	 * Remove the change sets that were found twice, e.g. at the border of two
+	 * pages or slices. The first occurrence is kept.
+	 */
+	private List<IChangeSetHandle> removeDuplicates(final List<IChangeSetHandle> handles, final int maxResults) {
+		final List<IChangeSetHandle> result = removeDuplicates(handles, new HashSet<UUID>());
+		return result.size() > maxResults ? result.subList(0, maxResults) : result;
+	}
+
+	/**
+	 * Remove the change sets, whose ids are already contained in the set of
+	 * known ids. The ids of the remaining change sets are added to the set.
+	 */
+	private List<IChangeSetHandle> removeDuplicates(final List<IChangeSetHandle> handles, final Set<UUID> ids) {
+		final List<IChangeSetHandle> result = new ArrayList<IChangeSetHandle>();
+		for (final IChangeSetHandle handle : handles) {
+			if (ids.add(handle.getItemId())) {
+				result.add(handle);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Receives the pages of a change set search.
+	 */
+	public interface IPageHandler {
+
+		/**
+		 * Handle one page of change sets.
+		 * 
+		 * @param page
+		 *            handles of the change sets of the page
+		 * @return false, if the search should be stopped
+		 */
+		boolean handlePage(List<IChangeSetHandle> page);
+	}
+
+	/**
+	 * Query for one slice of the time window. The slices overlap at the borders
+	 * by one millisecond, so that no change set gets lost. The duplicates are
+	 * removed after merging.
+	 */
+	private class SliceTask extends RecursiveTask<List<IChangeSetHandle>> {
+
+		private static final long serialVersionUID = 1L;
+
+		private transient final IChangeSetSearchCriteria searchCriteria;
+
+		private transient final long after;
+
+		private transient final long before;
+
+		private transient final int parts;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param searchCriteria
+		 *            the original search criteria
+		 * @param after
+		 *            start of the slice
+		 * @param before
+		 *            end of the slice
+		 * @param parts
+		 *            number of parts, in which the slice is split
+		 */
+		SliceTask(final IChangeSetSearchCriteria searchCriteria, final long after, final long before, final int parts) {
+			super();
+			this.searchCriteria = searchCriteria;
+			this.after = after;
+			this.before = before;
+			this.parts = parts;
+		}
+
+		@Override
+		protected List<IChangeSetHandle> compute() {
+			try {
+				List<IChangeSetHandle> result;
+
+				if (parts > 1 && before - after > parts) {
+					result = computeParts(parts);
+				} else {
+					final IChangeSetSearchCriteria sliceCriteria = copy(searchCriteria);
+					sliceCriteria.setModifiedAfter(new Timestamp(after));
+					sliceCriteria.setModifiedBefore(new Timestamp(before));
+					result = query(sliceCriteria, IWorkspaceManager.MAX_QUERY_SIZE);
+
+					if (result.size() >= IWorkspaceManager.MAX_QUERY_SIZE) {
+						// slice is full, split it again or page through it
+						result = before - after > 2 ? computeParts(2) : findSerial(sliceCriteria, Integer.MAX_VALUE);
+					}
+				}
+
+				return result;
+			} catch (TeamRepositoryException exception) {
+				throw new SliceException(exception);
+			}
+		}
+
+		private List<IChangeSetHandle> computeParts(final int number) {
+			final List<SliceTask> tasks = new ArrayList<SliceTask>();
+			final long width = (before - after) / number;
+			for (int i = 0; i < number; i++) {
+				final long sliceAfter = after + i * width;
+				final long sliceBefore = i == number - 1 ? before : sliceAfter + width + 1;
+				tasks.add(new SliceTask(searchCriteria, sliceAfter, sliceBefore, 1));
+			}
+
+			// merge in the order of the search criteria
+			if (!searchCriteria.isOldestFirst()) {
+				Collections.reverse(tasks);
+			}
+			invokeAll(tasks);
+
+			final List<IChangeSetHandle> result = new ArrayList<IChangeSetHandle>();
+			for (final SliceTask task : tasks) {
+				result.addAll(task.join());
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Transports a TeamRepositoryException out of the fork join pool.
+	 */
+	private static class SliceException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param cause
+		 */
+		SliceException(final TeamRepositoryException cause) {
+			super(cause);
+		}
+
+		@Override
+		public synchronized TeamRepositoryException getCause() {
+			return (TeamRepositoryException) super.getCause();
+		}
+	}
+
+}
@@ -0,0 +1,132 @@
+package com.rus.jazz.tool.analyzescmcontent.analyze.dao;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.ibm.team.repository.common.TeamRepositoryException;
+import com.ibm.team.scm.common.IChangeSetHandle;
+import com.ibm.team.scm.common.dto.IChangeSetSearchCriteria;
+import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
+
+/**
+ * Stream of the change set pages of a change set search. The search is executed
+ * in a separate thread and every page is put into a bounded queue as soon as it
+ * arrives. The consumer can analyze a page while the next page is searched. If
+ * the queue is full, the search waits until the consumer has taken a page.
+ */
+public class ChangeSetStream {
+
+	private static final Logger LOGGER = LogManager.getLogger(ChangeSetStream.class.getName());
+
+	/**
+	 * Marks the end of the stream in the queue.
+	 */
+	private static final List<IChangeSetHandle> END = Collections.unmodifiableList(new ArrayList<IChangeSetHandle>());
+
+	private transient final BlockingQueue<List<IChangeSetHandle>> queue;
+
+	private transient final Thread producer;
+
+	private transient volatile TeamRepositoryException failure;
+
+	private transient boolean finished;
+
+	/**
+	 * Constructor. The search starts immediately.
+	 * 
+	 * @param search
+	 *            the change set search
+	 * @param searchCriteria
+	 *            the search criteria
+	 * @param queueSize
+	 *            maximal number of pages, that are searched in advance
+	 */
+	public ChangeSetStream(final ChangeSetSearch search, final IChangeSetSearchCriteria searchCriteria,
+			final int queueSize) {
+		queue = new ArrayBlockingQueue<List<IChangeSetHandle>>(Math.max(1, queueSize));
+		producer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				produce(search, searchCriteria);
+			}
+		}, "ChangeSetStream");
+		producer.setDaemon(true);
+		producer.start();
+	}
+
+	private void produce(final ChangeSetSearch search, final IChangeSetSearchCriteria searchCriteria) {
+		try {
+			search.findSerial(searchCriteria, Integer.MAX_VALUE, new ChangeSetSearch.IPageHandler() {
+				@Override
+				public boolean handlePage(final List<IChangeSetHandle> page) {
+					return put(page);
+				}
+			});
+		} catch (TeamRepositoryException exception) {
+			LOGGER.error("Change set search failed", exception);
+			failure = exception;
+		} finally {
+			put(END);
+		}
+	}
+
+	private boolean put(final List<IChangeSetHandle> page) {
+		boolean result = true;
+		try {
+			queue.put(page);
+		} catch (InterruptedException exception) {
+			// the stream was closed by the consumer
+			Thread.currentThread().interrupt();
+			result = false;
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the next page of change set handles. Waits until the page was
+	 * received from the server.
+	 * 
+	 * @return next page or null, if there are no further change sets
+	 * @throws AnalyzeException
+	 *             if the search failed
+	 */
+	public List<IChangeSetHandle> nextPage() throws AnalyzeException {
+		List<IChangeSetHandle> result = null;
+
+		if (!finished) {
+			try {
+				result = queue.take();
+			} catch (InterruptedException exception) {
+				Thread.currentThread().interrupt();
+				close();
+				throw new AnalyzeException("Change set search was interrupted", exception);
+			}
+
+			if (result == END) { // NOPMD
+				finished = true;
+				result = null;
+				if (failure != null) {
+					throw new AnalyzeException(failure.getMessage(), failure);
+				}
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Stop the search, if it is still running.
+	 */
+	public void close() {
+		finished = true;
+		producer.interrupt();
+		queue.clear();
+	}
+
+}
@@ -1,21 +1,17 @@
 package com.rus.jazz.tool.analyzescmcontent.analyze.dao;
 
-import java.sql.Timestamp;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.eclipse.emf.ecore.EObject;
-import org.eclipse.emf.ecore.util.EcoreUtil;
 
 import com.ibm.team.process.common.IProcessArea;
-import com.ibm.team.process.common.ITeamArea;
 import com.ibm.team.repository.client.IItemManager;
 import com.ibm.team.repository.client.internal.ItemManager;
-import com.ibm.team.repository.common.IAuditable;
-import com.ibm.team.repository.common.IAuditableHandle;
 import com.ibm.team.repository.common.IContributor;
+import com.ibm.team.repository.common.IContributorHandle;
 import com.ibm.team.repository.common.TeamRepositoryException;
 import com.ibm.team.scm.client.IWorkspaceManager;
 import com.ibm.team.scm.common.IChangeSet;
@@ -23,11 +19,15 @@ import com.ibm.team.scm.common.IChangeSetHandle;
 import com.ibm.team.scm.common.IComponent;
 import com.ibm.team.scm.common.IComponentHandle;
 import com.ibm.team.scm.common.dto.IChangeSetSearchCriteria;
+import com.rus.jazz.tool.analyzescmcontent.IncrementalState;
 import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeParameter;
 import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeServerConnection;
 import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
 import com.rus.jazz.tool.analyzescmcontent.analyze.ChangeSetAnalyzer;
+import com.rus.jazz.tool.analyzescmcontent.analyze.modules.IModule.Level;
+import com.rus.jazz.tool.analyzescmcontent.analyze.modules.ModuleManager;
 import com.rus.jazz.tool.analyzescmcontent.output.AnalyzeOutput;
+import com.rus.jazz.tool.analyzescmcontent.output.RunStatistics;
 
 /**
  * DAO for a component. This class is responsible, that every access to the
@@ -37,6 +37,14 @@ public class ComponentDAO {
 
 	private static final Logger LOGGER = LogManager.getLogger(ComponentDAO.class.getName());
 
+	private static final String CHANGESET_BATCH_SIZE = "ComponentDAO.ChangeSetBatchSize";
+
+	private static final String TIME_SLICES = "ComponentDAO.TimeSlices";
+
+	private static final String STREAMED_PAGES = "ComponentDAO.StreamedPages";
+
+	private static final Set<String> COUNT_PROPERTIES = ItemProperties.of(ItemProperties.COMPLETE);
+
 	private transient IComponent component;
 
 	private transient final IComponentHandle componentHandle;
@@ -45,7 +53,9 @@ public class ComponentDAO {
 
 	private transient final AnalyzeOutput output;
 
-	private transient List<ChangeSetAnalyzer> changeSets;
+	private transient List<IChangeSetHandle> changeSetHandles;
+
+	private transient int changeSetCount = -1;
 
 	/**
 	 * Constructor.
@@ -60,18 +70,38 @@ public class ComponentDAO {
 	}
 
 	/**
-	 * Return the component object.
+	 * Return the handle of the component.
+	 * 
+	 * @return component handle
+	 */
+	public IComponentHandle getHandle() {
+		return componentHandle;
+	}
+
+	/**
+	 * Return the component object. The change sets of the component may ask
+	 * for it from several threads.
 	 * 
 	 * @return component object
 	 * @throws AnalyzeException
 	 */
-	public IComponent getComponent() throws AnalyzeException {
+	public synchronized IComponent getComponent() throws AnalyzeException {
 		if (component == null) {
+			ServerRequestLimiter.getInstance().acquire();
 			try {
-				component = (IComponent) SCMAnalyzeServerConnection.getInstance().getItemManager()
-						.fetchCompleteItem(componentHandle, ItemManager.REFRESH, null);
+				final IItemManager itemManager = SCMAnalyzeServerConnection.getInstance().getItemManager();
+				final Set<String> properties = ItemProperties.merge(ModuleManager.getInstance()
+						.getRequiredProperties(Level.COMPONENT), ItemProperties.NAME);
+				if (properties == null) {
+					component = (IComponent) itemManager.fetchCompleteItem(componentHandle, ItemManager.REFRESH, null);
+				} else {
+					component = (IComponent) itemManager.fetchPartialItem(componentHandle, ItemManager.REFRESH,
+							properties, null);
+				}
 			} catch (TeamRepositoryException exception) {
 				throw new AnalyzeException(exception.getMessage(), exception);
+			} finally {
+				ServerRequestLimiter.getInstance().release();
 			}
 		}
 
@@ -84,45 +114,17 @@ public class ComponentDAO {
 	 * @return componentDAO
 	 * @throws AnalyzeException
 	 */
-	public ComponentOwnerDAO getOwner() throws AnalyzeException {
+	public synchronized ComponentOwnerDAO getOwner() throws AnalyzeException {
 		if (componentOwner == null) {
-			try {
-				List<IAuditableHandle> ownerHandles;
+			// the owners are normally resolved together for all components
+			final ComponentOwnerResolver resolver = ComponentOwnerResolver.getInstance();
+			componentOwner = resolver.getOwner(componentHandle);
+
+			if (componentOwner == null) {
 				final List<IComponentHandle> compHandles = new ArrayList<IComponentHandle>();
 				compHandles.add(componentHandle);
-
-				ownerHandles = SCMAnalyzeServerConnection.getInstance().getWorkspaceManager().findOwnersForComponents( // NOPMD
-						compHandles, null);
-
-				if (ownerHandles.size() != 1) { // NOPMD
-					// this method only search for one component. Therefore in
-					// the
-					// result list also only one is possible
-					throw new UnsupportedOperationException("Only one owner is expected for the component "
-							+ getComponent().getName());
-				}
-
-				// and load the first (and only) owner
-				final IAuditableHandle auditibleHandle = ownerHandles.get(0);
-				final IAuditable auditable = (IAuditable) SCMAnalyzeServerConnection.getInstance().getItemManager()
-						.fetchCompleteItem(auditibleHandle, IItemManager.DEFAULT, null);
-
-				Object owner = SCMAnalyzeServerConnection.getInstance().getItemManager()
-						.fetchCompleteItem(auditable.getItemHandle(), IItemManager.DEFAULT, null);
-
-				// Return the Project Area if component owner is instance of
-				// team
-				// area
-				if (owner instanceof ITeamArea) {
-					final ITeamArea teamArea = (ITeamArea) owner;
-					owner = SCMAnalyzeServerConnection.getInstance().getItemManager()
-							.fetchCompleteItem(teamArea.getProjectArea(), ItemManager.REFRESH, null);
-				}
-
-				componentOwner = new ComponentOwnerDAO(owner);
-
-			} catch (TeamRepositoryException exception) {
-				throw new AnalyzeException(exception.getMessage(), exception);
+				resolver.resolve(compHandles);
+				componentOwner = resolver.getOwner(componentHandle);
 			}
 		}
 		return componentOwner;
@@ -168,85 +170,224 @@ public class ComponentDAO {
 	}
 
 	/**
-	 * Return all change sets for this component that area that match the
-	 * criterias.
+	 * Return the handles of all change sets for this component that match the
+	 * criterias. Only the handles are kept, the change sets themselves are
+	 * fetched page by page with {@link #createChangeSetAnalyzers(List)}.
 	 * 
-	 * @return list of ChangeSetAnalyzer objects
+	 * @return list of change set handles
 	 * @throws AnalyzeException
 	 */
-	public List<ChangeSetAnalyzer> getChangeSetsForComponent() throws AnalyzeException {
-		if (changeSets == null) {
+	public synchronized List<IChangeSetHandle> getChangeSetHandles() throws AnalyzeException {
+		if (changeSetHandles == null) {
 			// Search for the change sets
-			final IChangeSetSearchCriteria searchCriteria = IChangeSetSearchCriteria.FACTORY.newInstance();
-			searchCriteria.setComponent(getComponent());
-			searchCriteria.setModifiedAfter(SCMAnalyzeParameter.getInstance().getModifiedAfter());
-			searchCriteria.setModifiedBefore(SCMAnalyzeParameter.getInstance().getModifiedBefore());
-			List<IChangeSetHandle> handles;
+			final IChangeSetSearchCriteria searchCriteria = createSearchCriteria();
 			try {
-				handles = findChangeSets(searchCriteria, Integer.MAX_VALUE);
+				final int slices = SCMAnalyzeParameter.getInstance().getIntegerProperty(TIME_SLICES, 1);
+				if (slices > 1) {
+					changeSetHandles = createSearch().findTimeSliced(searchCriteria, Integer.MAX_VALUE, slices);
+				} else {
+					changeSetHandles = createSearch().findSerial(searchCriteria, Integer.MAX_VALUE);
+				}
 			} catch (TeamRepositoryException e) {
 				throw new AnalyzeException(e.getMessage(), e);
 			}
 
-			changeSets = new ArrayList<ChangeSetAnalyzer>();
+			LOGGER.info(changeSetHandles.size() + " change sets in component " + getComponent().getName()
+					+ " identified");
+		}
+
+		return changeSetHandles;
+	}
+
+	/**
+	 * Return the number of complete change sets for this component that match
+	 * the criterias. For counting only the complete flag of the change sets
+	 * is fetched and the change set objects are not kept.
+	 * 
+	 * @return number of change sets
+	 * @throws AnalyzeException
+	 */
+	public synchronized int getChangeSetCount() throws AnalyzeException {
+		if (changeSetCount < 0) {
+			final List<IChangeSetHandle> handles = getChangeSetHandles();
+			final BatchLoader<IChangeSetHandle, IChangeSet> loader = new BatchLoader<IChangeSetHandle, IChangeSet>(
+					new ItemBatchSource<IChangeSetHandle, IChangeSet>(SCMAnalyzeServerConnection.getInstance()
+							.getItemManager(), IItemManager.DEFAULT, COUNT_PROPERTIES), getChangeSetBatchSize());
+
+			// keep only the handles of the complete change sets. Change sets
+			// in the persistent cache are always complete.
+			final List<IChangeSetHandle> complete = new ArrayList<IChangeSetHandle>();
+			final List<IChangeSetHandle> unknown = new ArrayList<IChangeSetHandle>();
 			for (final IChangeSetHandle handle : handles) {
-				ChangeSetAnalyzer changeSet = new ChangeSetAnalyzer(handle, this, output);
-				ChangeSetDAO dao = (ChangeSetDAO) changeSet.getDAO();
-				if (dao.getChangeSet().isComplete()) {
-					changeSets.add(changeSet);
+				if (PersistentCache.getInstance().contains(ChangeSetRecord.getKey(handle.getItemId()))) {
+					complete.add(handle);
+				} else {
+					unknown.add(handle);
 				}
 			}
+			for (int start = 0; start < unknown.size(); start += getChangeSetBatchSize()) {
+				final List<IChangeSetHandle> page = unknown.subList(start,
+						Math.min(unknown.size(), start + getChangeSetBatchSize()));
+				final List<IChangeSet> items = loader.load(page);
+				for (int i = 0; i < page.size(); i++) {
+					if (items.get(i) != null && items.get(i).isComplete()) {
+						complete.add(page.get(i));
+					}
+				}
+			}
+
+			changeSetHandles = complete;
+			changeSetCount = complete.size();
+		}
 
-			LOGGER.info(changeSets.size() + " change sets in component " + getComponent().getName() + " identified");
+		return changeSetCount;
+	}
+
+	/**
+	 * Return the number of change sets, which are fetched and analyzed
+	 * together.
+	 * 
+	 * @return batch size for change sets
+	 */
+	public int getChangeSetBatchSize() {
+		return SCMAnalyzeParameter.getInstance().getIntegerProperty(CHANGESET_BATCH_SIZE,
+				IWorkspaceManager.MAX_QUERY_SIZE);
+	}
+
+	/**
+	 * Returns true, if the change sets of the component should be streamed
+	 * page by page instead of searching all change sets first. This is the
+	 * case, if streaming is configured and the change sets were not already
+	 * searched, e.g. for counting them. A time sliced search returns all
+	 * change sets at once, so it is not streamed.
+	 * 
+	 * @return true, if {@link #streamChangeSetsForComponent()} should be used
+	 */
+	public boolean isStreamingEnabled() {
+		final SCMAnalyzeParameter parameter = SCMAnalyzeParameter.getInstance();
+		boolean result = changeSetHandles == null && parameter.getIntegerProperty(STREAMED_PAGES, 0) > 0;
+		if (result && parameter.getIntegerProperty(TIME_SLICES, 1) > 1) {
+			LOGGER.info("Change sets of component " + componentHandle.getItemId().getUuidValue()
+					+ " are searched in time slices, " + STREAMED_PAGES + " is ignored");
+			result = false;
 		}
+		return result;
+	}
 
-		return changeSets;
+	/**
+	 * Start the search for the change sets of the component. The pages of the
+	 * search can be taken from the returned stream as soon as they are
+	 * received. Use {@link #createChangeSetAnalyzers(List)} to create the
+	 * analyzers for a page.
+	 * 
+	 * @return stream of change set pages
+	 * @throws AnalyzeException
+	 */
+	public ChangeSetStream streamChangeSetsForComponent() throws AnalyzeException {
+		return new ChangeSetStream(createSearch(), createSearchCriteria(), SCMAnalyzeParameter.getInstance()
+				.getIntegerProperty(STREAMED_PAGES, 0));
 	}
 
 	/**
-	 * Find all change sets for a given search criteria. It is necessary to
-	 * split the query because one execution of a change set query can only
-	 * return 256 change sets. Therefore the query is executed more often with
-	 * different start dates, until no further change sets can be wound for the
-	 * given criteria.
+	 * Create the analyzers for the given change sets. The change sets are
+	 * fetched in chunks and only complete change sets are returned.
 	 * 
-	 * @param searchCriteria
-	 * @param maxResults
-	 * @param repository
-	 * @return
-	 * @throws TeamRepositoryException
+	 * @param handles
+	 *            handles of the change sets
+	 * @return list of ChangeSetAnalyzer objects
+	 * @throws AnalyzeException
 	 */
-	private List<IChangeSetHandle> findChangeSets(final IChangeSetSearchCriteria searchCriteria, final int maxResults)
-			throws TeamRepositoryException {
-		int toFetch = maxResults;
+	public List<ChangeSetAnalyzer> createChangeSetAnalyzers(final List<IChangeSetHandle> handles)
+			throws AnalyzeException {
+		final List<ChangeSetAnalyzer> analyzers = new ArrayList<ChangeSetAnalyzer>();
+		for (final IChangeSetHandle handle : handles) {
+			analyzers.add(new ChangeSetAnalyzer(handle, this, output));
+		}
 
-		// Load necessary Services
-		final IWorkspaceManager workspacemanager = SCMAnalyzeServerConnection.getInstance().getWorkspaceManager();
+		// fetch the change sets in chunks instead of one request per
+		// change set
+		fetchChangeSets(analyzers);
 
-		final List<IChangeSetHandle> result = new ArrayList<IChangeSetHandle>();
+		final List<ChangeSetAnalyzer> result = new ArrayList<ChangeSetAnalyzer>();
+		for (final ChangeSetAnalyzer changeSet : analyzers) {
+			final ChangeSetDAO dao = (ChangeSetDAO) changeSet.getDAO();
+			if (dao.isComplete()) {
+				result.add(changeSet);
+			}
+		}
 
-		final IChangeSetSearchCriteria pagingCriteria = (IChangeSetSearchCriteria) EcoreUtil
-				.copy((EObject) searchCriteria);
+		return result;
+	}
 
-		List<IChangeSetHandle> findResult = workspacemanager.findChangeSets(pagingCriteria, toFetch, null);
-		result.addAll(findResult);
+	private IChangeSetSearchCriteria createSearchCriteria() throws AnalyzeException {
+		final IChangeSetSearchCriteria searchCriteria = IChangeSetSearchCriteria.FACTORY.newInstance();
+		searchCriteria.setComponent(getComponent());
+		if (SCMAnalyzeParameter.getInstance().isIncremental()) {
+			// the rows are written in the order of the search, so oldest
+			// first the mark never passes a change set, that is not written
+			searchCriteria.setOldestFirst(true);
+			searchCriteria.setModifiedAfter(IncrementalState.getInstance().getModifiedAfter(componentHandle));
+		} else {
+			searchCriteria.setModifiedAfter(SCMAnalyzeParameter.getInstance().getModifiedAfter());
+		}
+		searchCriteria.setModifiedBefore(SCMAnalyzeParameter.getInstance().getModifiedBefore());
+		return searchCriteria;
+	}
+
+	private ChangeSetSearch createSearch() {
+		return new ChangeSetSearch(SCMAnalyzeServerConnection.getInstance().getWorkspaceManager(),
+				SCMAnalyzeServerConnection.getInstance().getItemManager());
+	}
 
-		while (toFetch > IWorkspaceManager.MAX_QUERY_SIZE && findResult.size() == IWorkspaceManager.MAX_QUERY_SIZE) {
-			toFetch = toFetch - findResult.size();
-			final IChangeSet lastChangeSet = (IChangeSet) SCMAnalyzeServerConnection.getInstance().getItemManager()
-					.fetchCompleteItem(result.get(result.size() - 1), IItemManager.DEFAULT, null);
-			// update the modified before/after to get the remaining change sets
-			if (pagingCriteria.isOldestFirst()) {
-				pagingCriteria.setModifiedAfter(new Timestamp(lastChangeSet.getLastChangeDate().getTime()));
+	/**
+	 * Fetch the change set objects of the analyzers with a batch loader and
+	 * fill the change set DAOs with them. The number of round trips is added to
+	 * the run statistics.
+	 * 
+	 * @param analyzers
+	 *            change set analyzers
+	 * @throws AnalyzeException
+	 */
+	private void fetchChangeSets(final List<ChangeSetAnalyzer> analyzers) throws AnalyzeException {
+		// only the change sets, that are not in the persistent cache, are
+		// fetched
+		final List<ChangeSetDAO> missing = new ArrayList<ChangeSetDAO>();
+		final List<IChangeSetHandle> handles = new ArrayList<IChangeSetHandle>();
+		final List<IContributorHandle> authors = new ArrayList<IContributorHandle>();
+		for (final ChangeSetAnalyzer analyzer : analyzers) {
+			final ChangeSetDAO dao = (ChangeSetDAO) analyzer.getDAO();
+			if (PersistentCache.getInstance().isEnabled() && dao.loadRecord()) {
+				authors.add(dao.getAuthorHandle());
 			} else {
-				pagingCriteria.setModifiedBefore(new Timestamp(lastChangeSet.getLastChangeDate().getTime()));
+				missing.add(dao);
+				handles.add(dao.getHandle());
 			}
+		}
 
-			findResult = workspacemanager.findChangeSets(pagingCriteria, toFetch, null);
-			result.addAll(findResult);
+		final int batchSize = getChangeSetBatchSize();
+		final BatchLoader<IChangeSetHandle, IChangeSet> loader = new BatchLoader<IChangeSetHandle, IChangeSet>(
+				new ItemBatchSource<IChangeSetHandle, IChangeSet>(SCMAnalyzeServerConnection.getInstance()
+						.getItemManager(), IItemManager.DEFAULT, ChangeSetDAO.getFetchProperties()), batchSize);
+		final List<IChangeSet> items = loader.load(handles);
+
+		for (int i = 0; i < missing.size(); i++) {
+			final IChangeSet item = items.get(i);
+			if (item != null) {
+				missing.get(i).setChangeSet(item);
+				authors.add(item.getAuthor());
+			}
 		}
 
-		return result;
+		// fetch the authors of all change sets together
+		if (ModuleManager.getInstance().isAuthorRequired()) {
+			ContributorCache.getInstance().prefetch(authors);
+		}
+
+		LOGGER.info(loader.getFetchedItems() + " change sets fetched with " + loader.getRoundTrips()
+				+ " requests, " + loader.getSavedRoundTrips() + " round trips saved");
+		RunStatistics.getInstance().add("Change sets fetched", loader.getFetchedItems());
+		RunStatistics.getInstance().add("Change set fetch round trips", loader.getRoundTrips());
+		RunStatistics.getInstance().add("Change set fetch round trips saved", loader.getSavedRoundTrips());
 	}
 
 }
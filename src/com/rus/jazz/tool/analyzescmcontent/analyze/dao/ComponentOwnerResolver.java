@@ -0,0 +1,168 @@
+package com.rus.jazz.tool.analyzescmcontent.analyze.dao;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.ibm.team.process.common.IProjectArea;
+import com.ibm.team.process.common.IProjectAreaHandle;
+import com.ibm.team.process.common.ITeamArea;
+import com.ibm.team.repository.client.IItemManager;
+import com.ibm.team.repository.client.internal.ItemManager;
+import com.ibm.team.repository.common.IAuditable;
+import com.ibm.team.repository.common.IAuditableHandle;
+import com.ibm.team.repository.common.TeamRepositoryException;
+import com.ibm.team.repository.common.UUID;
+import com.ibm.team.scm.common.IComponentHandle;
+import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeServerConnection;
+import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ComponentDAO.ComponentOwnerDAO;
+
+/**
+ * Resolve the owners of a list of components with as less requests as
+ * possible. The owners of all components are searched with one request, the
+ * owning process areas and the project areas of team areas are fetched
+ * together and only once. The resolved owners are kept for the whole run.
+ */
+public final class ComponentOwnerResolver {
+
+	private static final Logger LOGGER = LogManager.getLogger(ComponentOwnerResolver.class.getName());
+
+	private static final int BATCH_SIZE = 512;
+
+	private static ComponentOwnerResolver instance;
+
+	private transient final ConcurrentMap<UUID, ComponentOwnerDAO> owners;
+
+	/**
+	 * Constructor.
+	 */
+	private ComponentOwnerResolver() {
+		owners = new ConcurrentHashMap<UUID, ComponentOwnerDAO>();
+	}
+
+	/**
+	 * Return the instance of the resolver. The instance will be created with
+	 * the first call.
+	 * 
+	 * @return component owner resolver
+	 */
+	public static synchronized ComponentOwnerResolver getInstance() {
+		if (instance == null) {
+			instance = new ComponentOwnerResolver();
+		}
+		return instance;
+	}
+
+	/**
+	 * Return the already resolved owner of a component.
+	 * 
+	 * @param componentHandle
+	 *            handle of the component
+	 * @return owner DAO or null if the owner was not resolved
+	 */
+	public ComponentOwnerDAO getOwner(final IComponentHandle componentHandle) {
+		return owners.get(componentHandle.getItemId());
+	}
+
+	/**
+	 * Resolve the owners of all given components. If the owner of a component
+	 * is a team area the project area of the team area will be used.
+	 * 
+	 * @param componentHandles
+	 *            handles of the components
+	 * @throws AnalyzeException
+	 */
+	@SuppressWarnings("unchecked")
+	public void resolve(final List<IComponentHandle> componentHandles) throws AnalyzeException {
+		if (componentHandles.isEmpty()) {
+			return;
+		}
+
+		// search the owners of all components with one request
+		List<IAuditableHandle> ownerHandles;
+		ServerRequestLimiter.getInstance().acquire();
+		try {
+			ownerHandles = SCMAnalyzeServerConnection.getInstance().getWorkspaceManager()
+					.findOwnersForComponents(componentHandles, null);
+		} catch (TeamRepositoryException exception) {
+			throw new AnalyzeException(exception.getMessage(), exception);
+		} finally {
+			ServerRequestLimiter.getInstance().release();
+		}
+
+		if (ownerHandles.size() != componentHandles.size()) { // NOPMD
+			throw new AnalyzeException("Expected one owner for each component but found " + ownerHandles.size()
+					+ " owners for " + componentHandles.size() + " components");
+		}
+
+		// fetch every owner only once
+		final IItemManager itemManager = SCMAnalyzeServerConnection.getInstance().getItemManager();
+		final Map<UUID, IAuditable> ownerItems = fetchUnique(ownerHandles, itemManager, IItemManager.DEFAULT);
+
+		// and the project areas of the owning team areas
+		final List<IAuditableHandle> projectAreaHandles = new ArrayList<IAuditableHandle>();
+		for (final IAuditable owner : ownerItems.values()) {
+			if (owner instanceof ITeamArea) {
+				projectAreaHandles.add(((ITeamArea) owner).getProjectArea());
+			}
+		}
+		final Map<UUID, IAuditable> projectAreas = fetchUnique(projectAreaHandles, itemManager,
+				ItemManager.REFRESH);
+
+		for (int i = 0; i < componentHandles.size(); i++) {
+			Object owner = ownerItems.get(ownerHandles.get(i).getItemId());
+			if (owner instanceof ITeamArea) {
+				final IProjectAreaHandle projectArea = ((ITeamArea) owner).getProjectArea();
+				owner = (IProjectArea) projectAreas.get(projectArea.getItemId());
+			}
+			owners.put(componentHandles.get(i).getItemId(), new ComponentOwnerDAO(owner));
+		}
+
+		LOGGER.info("Owners of " + componentHandles.size() + " components resolved (" + ownerItems.size()
+				+ " owners, " + projectAreas.size() + " project areas of team areas)");
+	}
+
+	/**
+	 * Fetch the items for the handles. Every item will be fetched only once,
+	 * even if the handle is contained more than once.
+	 * 
+	 * @param handles
+	 *            handles, may contain duplicates
+	 * @param itemManager
+	 *            the item manager
+	 * @param flags
+	 *            the flags for the item manager
+	 * @return map of the fetched items by item id
+	 * @throws AnalyzeException
+	 */
+	private Map<UUID, IAuditable> fetchUnique(final List<? extends IAuditableHandle> handles,
+			final IItemManager itemManager, final int flags) throws AnalyzeException {
+		final Map<UUID, IAuditableHandle> unique = new LinkedHashMap<UUID, IAuditableHandle>();
+		for (final IAuditableHandle handle : handles) {
+			if (!unique.containsKey(handle.getItemId())) {
+				unique.put(handle.getItemId(), handle);
+			}
+		}
+
+		final BatchLoader<IAuditableHandle, IAuditable> loader = new BatchLoader<IAuditableHandle, IAuditable>(
+				new ItemBatchSource<IAuditableHandle, IAuditable>(itemManager, flags), BATCH_SIZE);
+		final List<IAuditable> items = loader.load(new ArrayList<IAuditableHandle>(unique.values()));
+
+		final Map<UUID, IAuditable> result = new HashMap<UUID, IAuditable>();
+		for (final IAuditable item : items) {
+			if (item != null) {
+				result.put(item.getItemId(), item);
+			}
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,136 @@
+package com.rus.jazz.tool.analyzescmcontent.analyze.dao;
+
+import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeParameter;
+import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
+import com.rus.jazz.tool.analyzescmcontent.output.RunStatistics;
+
+/**
+ * Limits the file content, that is kept in memory by all threads of the
+ * analyze together. A download reserves the bytes, that it will keep in
+ * memory, before it starts and returns them, when the content is released. If
+ * the budget is used up, the download waits for a limited time. Contents that
+ * do not fit into the budget are spooled to disk instead.
+ */
+public final class ContentBudget {
+
+	private static final String MAX_BYTES = "ContentBudget.MaxBytes";
+
+	private static final int DEFAULT_MAX_BYTES = 256 * 1024 * 1024;
+
+	private static final String MAX_WAIT_MILLIS = "ContentBudget.MaxWaitMillis";
+
+	private static final int DEFAULT_MAX_WAIT_MILLIS = 10000;
+
+	private static ContentBudget instance;
+
+	private transient final long maxBytes;
+
+	private transient final long maxWaitMillis;
+
+	private transient long used;
+
+	private transient long peak;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param maxBytes
+	 *            maximal number of content bytes in memory, 0 for no limit
+	 * @param maxWaitMillis
+	 *            maximal time, that a download waits for the budget
+	 */
+	private ContentBudget(final long maxBytes, final long maxWaitMillis) {
+		this.maxBytes = maxBytes;
+		this.maxWaitMillis = maxWaitMillis;
+	}
+
+	/**
+	 * Return the instance of the budget. The instance will be created with the
+	 * first call.
+	 * 
+	 * @return content budget
+	 */
+	public static synchronized ContentBudget getInstance() {
+		if (instance == null) {
+			final SCMAnalyzeParameter parameter = SCMAnalyzeParameter.getInstance();
+			instance = new ContentBudget(parameter.getIntegerProperty(MAX_BYTES, DEFAULT_MAX_BYTES),
+					parameter.getIntegerProperty(MAX_WAIT_MILLIS, DEFAULT_MAX_WAIT_MILLIS));
+		}
+		return instance;
+	}
+
+	/**
+	 * Reserve bytes of the budget. If the budget is used up, the call waits
+	 * until other contents are released.
+	 * 
+	 * @param bytes
+	 *            number of bytes, that will be kept in memory
+	 * @param wait
+	 *            true to wait for the budget, false to return immediately
+	 * @return true, if the bytes are reserved. False, if the bytes are larger
+	 *         than the budget or the budget was not free in time.
+	 * @throws AnalyzeException
+	 *             if the thread is interrupted while waiting
+	 */
+	public synchronized boolean reserve(final long bytes, final boolean wait) throws AnalyzeException {
+		boolean result = true;
+
+		if (maxBytes > 0 && bytes > maxBytes) {
+			RunStatistics.getInstance().add("Content budget oversized contents", 1);
+			result = false;
+		} else if (maxBytes > 0 && used + bytes > maxBytes) {
+			result = wait && await(bytes);
+		}
+
+		if (result) {
+			used += bytes;
+			peak = Math.max(peak, used);
+		}
+		return result;
+	}
+
+	private boolean await(final long bytes) throws AnalyzeException {
+		RunStatistics.getInstance().add("Content budget waits", 1);
+		final long start = System.currentTimeMillis();
+		long remaining = maxWaitMillis;
+		try {
+			while (used + bytes > maxBytes && remaining > 0) {
+				wait(remaining);
+				remaining = maxWaitMillis - (System.currentTimeMillis() - start);
+			}
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new AnalyzeException("Interrupted while waiting for the content budget", exception);
+		} finally {
+			RunStatistics.getInstance().add("Content budget wait ms", System.currentTimeMillis() - start);
+		}
+
+		final boolean result = used + bytes <= maxBytes;
+		if (!result) {
+			RunStatistics.getInstance().add("Content budget timeouts", 1);
+		}
+		return result;
+	}
+
+	/**
+	 * Return reserved bytes to the budget.
+	 * 
+	 * @param bytes
+	 *            number of reserved bytes
+	 */
+	public synchronized void release(final long bytes) {
+		used -= bytes;
+		notifyAll();
+	}
+
+	/**
+	 * Add the peak utilization of the budget to the run statistics.
+	 */
+	public synchronized void publishUtilization() {
+		RunStatistics.getInstance().add("Content budget peak bytes", peak);
+		if (maxBytes > 0) {
+			RunStatistics.getInstance().add("Content budget peak utilization (%)", peak * 100 / maxBytes);
+		}
+	}
+
+}
@@ -0,0 +1,258 @@
+package com.rus.jazz.tool.analyzescmcontent.analyze.dao;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.ibm.team.filesystem.client.FileSystemCore;
+import com.ibm.team.filesystem.client.IFileContentManager;
+import com.ibm.team.filesystem.common.IFileItem;
+import com.ibm.team.repository.common.TeamRepositoryException;
+import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeParameter;
+import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeServerConnection;
+import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
+import com.rus.jazz.tool.analyzescmcontent.output.RunStatistics;
+import com.rus.jazz.tool.preventbinarydeliver.whitelist.ContentSink;
+
+/**
+ * The content of a file, that is downloaded at most once for all modules and
+ * white list checkers of a row. Only as much bytes are downloaded, as the
+ * registered modules need. Small contents are kept in memory, large contents
+ * are spooled to a temporary file by a {@link ContentSink}. The bytes kept in
+ * memory are reserved from the {@link ContentBudget} of the run. The lease must
+ * be released, when the row is written.
+ */
+public class ContentLease {
+
+	private static final Logger LOGGER = LogManager.getLogger(ContentLease.class.getName());
+
+	private static final String MAX_HEAP_BYTES = "ContentLease.MaxHeapBytes";
+
+	private static final int DEFAULT_MAX_HEAP_BYTES = 16 * 1024 * 1024;
+
+	private static final int BUFFER_SIZE = 8192;
+
+	private transient final VersionableDAO fileDAO;
+
+	private transient final int requiredLength;
+
+	private transient ContentSink sink;
+
+	private transient boolean downloaded;
+
+	private transient long reserved;
+
+	/**
+	 * Constructor. The content is downloaded on first access.
+	 * 
+	 * @param fileDAO
+	 *            the file. The state is only fetched, if it is not already
+	 *            fetched and the content is needed.
+	 * @param requiredLength
+	 *            number of bytes, that are downloaded. Integer.MAX_VALUE for
+	 *            the complete content.
+	 */
+	public ContentLease(final VersionableDAO fileDAO, final int requiredLength) {
+		this.fileDAO = fileDAO;
+		this.requiredLength = requiredLength;
+	}
+
+	/**
+	 * Return the first bytes of the content.
+	 * 
+	 * @param numberBytes
+	 *            maximal number of bytes
+	 * @return first bytes of the content, shorter if the content is smaller
+	 * @throws AnalyzeException
+	 */
+	public byte[] getPrefix(final int numberBytes) throws AnalyzeException {
+		final ByteBuffer buffer = getBuffer(numberBytes);
+		final byte[] result = new byte[Math.min(numberBytes, buffer.remaining())];
+		buffer.get(result);
+		return result;
+	}
+
+	/**
+	 * Return a read-only view of the complete content. Spooled content is
+	 * mapped into memory, so it is not copied into the heap.
+	 * 
+	 * @return read-only buffer with the content
+	 * @throws AnalyzeException
+	 */
+	public ByteBuffer getBuffer() throws AnalyzeException {
+		return getBuffer(Integer.MAX_VALUE);
+	}
+
+	/**
+	 * Return a read-only view of at least the first bytes of the content. Only
+	 * as much bytes are downloaded, as this and the other modules need.
+	 * 
+	 * @param numberBytes
+	 *            minimal number of bytes
+	 * @return read-only buffer with the downloaded content
+	 * @throws AnalyzeException
+	 */
+	public ByteBuffer getBuffer(final int numberBytes) throws AnalyzeException {
+		download(numberBytes, true);
+		try {
+			return sink.getBuffer();
+		} catch (IOException exception) {
+			throw new AnalyzeException(exception.getMessage(), exception);
+		}
+	}
+
+	/**
+	 * Download the leased content in advance, before a module reads it. The
+	 * content is not fetched, if the content budget is used up, so that
+	 * prefetched contents cannot block the downloads of the modules.
+	 * 
+	 * @throws AnalyzeException
+	 */
+	public void prefetch() throws AnalyzeException {
+		download(0, false);
+	}
+
+	/**
+	 * Write the complete content to an output stream.
+	 * 
+	 * @param outputStream
+	 *            receives the content
+	 * @throws AnalyzeException
+	 */
+	public void writeTo(final OutputStream outputStream) throws AnalyzeException {
+		download(Integer.MAX_VALUE, true);
+		try {
+			sink.writeTo(outputStream);
+		} catch (IOException exception) {
+			throw new AnalyzeException(exception.getMessage(), exception);
+		}
+	}
+
+	/**
+	 * Release the memory or the temporary file of the content.
+	 */
+	public void release() {
+		if (sink != null) {
+			sink.release();
+			sink = null;
+		}
+		if (reserved > 0) {
+			ContentBudget.getInstance().release(reserved);
+			reserved = 0;
+		}
+		downloaded = false;
+	}
+
+	/**
+	 * Download the content, if it was not downloaded before or if the
+	 * downloaded prefix is too short. The bytes kept in memory are reserved
+	 * first, if the budget has no room the content is spooled to disk.
+	 * 
+	 * @param wait
+	 *            true to wait for the content budget, false to skip the
+	 *            download if the budget is used up
+	 */
+	private void download(final int numberBytes, final boolean wait) throws AnalyzeException {
+		final long size = fileDAO.getContentSize();
+		if (!downloaded || sink.size() < Math.min(numberBytes, size)) {
+			if (downloaded) {
+				// a module reads more than it has declared
+				// the name may not be fetched, the handle is always there
+				LOGGER.warn("Content of file " + fileDAO.getHandle().getItemId().getUuidValue() + " (state "
+						+ fileDAO.getHandle().getStateId() + ") is downloaded again, only " + sink.size()
+						+ " bytes were leased");
+				RunStatistics.getInstance().add("Content downloads repeated", 1);
+				release();
+			}
+
+			final long toDownload = Math.min(size, Math.max(numberBytes, requiredLength));
+			sink = createSink(toDownload, wait);
+			if (sink != null) {
+				fetch(toDownload, size);
+			}
+		} else {
+			RunStatistics.getInstance().add("Content downloads shared", 1);
+		}
+	}
+
+	/**
+	 * Create the sink for the download and reserve the bytes, that it keeps in
+	 * memory. Without a reservation the sink spools the content to disk.
+	 * 
+	 * @return the sink, null if the download is skipped
+	 */
+	private ContentSink createSink(final long toDownload, final boolean wait) throws AnalyzeException {
+		final int maxHeapBytes = SCMAnalyzeParameter.getInstance().getIntegerProperty(MAX_HEAP_BYTES,
+				DEFAULT_MAX_HEAP_BYTES);
+		final long heapBytes = Math.min(toDownload, maxHeapBytes);
+		ContentSink result = null;
+		if (ContentBudget.getInstance().reserve(heapBytes, wait)) {
+			reserved = heapBytes;
+			result = new ContentSink(maxHeapBytes);
+		} else if (wait) {
+			RunStatistics.getInstance().add("Content downloads spooled by the budget", 1);
+			result = new ContentSink(0);
+		} else {
+			RunStatistics.getInstance().add("Content prefetches skipped by the budget", 1);
+		}
+		return result;
+	}
+
+	/**
+	 * Download at most toDownload bytes of the content into the sink.
+	 */
+	private void fetch(final long toDownload, final long size) throws AnalyzeException {
+		ServerRequestLimiter.getInstance().acquire();
+		try {
+			final IFileContentManager fileContentMgr = FileSystemCore.getContentManager(SCMAnalyzeServerConnection
+					.getInstance().getTeamRepository());
+			final InputStream input = fileContentMgr.retrieveContentStream((IFileItem) fileDAO.getVersionable(),
+					fileDAO.getContent(), null);
+			try {
+				copy(input, sink, toDownload);
+			} finally {
+				input.close();
+				sink.close();
+			}
+		} catch (TeamRepositoryException exception) {
+			release();
+			throw new AnalyzeException(exception.getMessage(), exception);
+		} catch (IOException exception) {
+			release();
+			throw new AnalyzeException(exception.getMessage(), exception);
+		} finally {
+			ServerRequestLimiter.getInstance().release();
+		}
+
+		downloaded = true;
+		RunStatistics.getInstance().add("Content downloads", 1);
+		RunStatistics.getInstance().add("Content bytes downloaded", sink.size());
+		RunStatistics.getInstance().add("Content bytes not downloaded", size - sink.size());
+		if (sink.isSpilled()) {
+			RunStatistics.getInstance().add("Content downloads spooled to disk", 1);
+		}
+	}
+
+	/**
+	 * Copy at most max bytes from the input to the output stream.
+	 */
+	private static long copy(final InputStream input, final OutputStream output, final long max)
+			throws IOException {
+		final byte[] buffer = new byte[BUFFER_SIZE];
+		long result = 0;
+		int read = 0;
+		while (result < max && read >= 0) {
+			read = input.read(buffer, 0, (int) Math.min(buffer.length, max - result));
+			if (read > 0) {
+				output.write(buffer, 0, read);
+				result += read;
+			}
+		}
+		return result;
+	}
+
+}
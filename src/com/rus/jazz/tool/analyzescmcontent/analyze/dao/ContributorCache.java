@@ -0,0 +1,136 @@
+package com.rus.jazz.tool.analyzescmcontent.analyze.dao;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.ibm.team.repository.client.IItemManager;
+import com.ibm.team.repository.common.IContributor;
+import com.ibm.team.repository.common.IContributorHandle;
+import com.ibm.team.repository.common.UUID;
+import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeParameter;
+import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeServerConnection;
+import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
+import com.rus.jazz.tool.analyzescmcontent.output.RunStatistics;
+
+/**
+ * Cache for the contributors of the whole analyze run. The contributors are
+ * stored by the item id. The cache can be used by several threads.
+ */
+public final class ContributorCache {
+
+	private static final String BATCH_SIZE = "ContributorCache.BatchSize";
+
+	private static final int DEFAULT_BATCH_SIZE = 512;
+
+	private static final String HITS = "Contributor cache hits";
+
+	private static final String MISSES = "Contributor cache misses";
+
+	private static ContributorCache instance;
+
+	private transient final ConcurrentMap<UUID, IContributor> contributors;
+
+	private transient final BatchLoader<IContributorHandle, IContributor> loader;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param source
+	 *            the source for fetching the contributors
+	 * @param batchSize
+	 *            number of contributors fetched with one request
+	 */
+	public ContributorCache(final IBatchSource<IContributorHandle, IContributor> source, final int batchSize) {
+		contributors = new ConcurrentHashMap<UUID, IContributor>();
+		loader = new BatchLoader<IContributorHandle, IContributor>(source, batchSize);
+	}
+
+	/**
+	 * Return the instance of the contributor cache. The instance will be
+	 * created with the first call.
+	 * 
+	 * @return contributor cache
+	 */
+	public static synchronized ContributorCache getInstance() {
+		if (instance == null) {
+			final IItemManager itemManager = SCMAnalyzeServerConnection.getInstance().getItemManager();
+			final int batchSize = SCMAnalyzeParameter.getInstance().getIntegerProperty(BATCH_SIZE,
+					DEFAULT_BATCH_SIZE);
+			instance = new ContributorCache(new ItemBatchSource<IContributorHandle, IContributor>(itemManager,
+					IItemManager.DEFAULT), batchSize);
+		}
+		return instance;
+	}
+
+	/**
+	 * Return the contributor for the handle. If the contributor is not cached
+	 * it will be fetched from the repository.
+	 * 
+	 * @param handle
+	 *            contributor handle
+	 * @return contributor
+	 * @throws AnalyzeException
+	 */
+	public IContributor get(final IContributorHandle handle) throws AnalyzeException {
+		IContributor result = contributors.get(handle.getItemId());
+
+		if (result == null) {
+			final List<IContributorHandle> handles = new ArrayList<IContributorHandle>();
+			handles.add(handle);
+			result = fetch(handles).get(0);
+		} else {
+			RunStatistics.getInstance().add(HITS, 1);
+		}
+
+		return result;
+	}
+
+	/**
+	 * Fetch all contributors that are not yet cached with as less requests as
+	 * possible.
+	 * 
+	 * @param handles
+	 *            contributor handles, may contain duplicates
+	 * @throws AnalyzeException
+	 */
+	public void prefetch(final Collection<IContributorHandle> handles) throws AnalyzeException {
+		final Set<UUID> ids = new HashSet<UUID>();
+		final List<IContributorHandle> missing = new ArrayList<IContributorHandle>();
+		for (final IContributorHandle handle : handles) {
+			if (!contributors.containsKey(handle.getItemId()) && ids.add(handle.getItemId())) {
+				missing.add(handle);
+			}
+		}
+
+		if (!missing.isEmpty()) {
+			fetch(missing);
+		}
+	}
+
+	private List<IContributor> fetch(final List<IContributorHandle> handles) throws AnalyzeException {
+		final List<IContributor> result = loader.load(handles);
+		for (final IContributor contributor : result) {
+			if (contributor != null) {
+				contributors.put(contributor.getItemId(), contributor);
+			}
+		}
+		RunStatistics.getInstance().add(MISSES, handles.size());
+
+		return result;
+	}
+
+	/**
+	 * Return the number of requests that were necessary to fill the cache.
+	 * 
+	 * @return number of requests
+	 */
+	public long getRoundTrips() {
+		return loader.getRoundTrips();
+	}
+
+}
@@ -0,0 +1,31 @@
+package com.rus.jazz.tool.analyzescmcontent.analyze.dao;
+
+import java.util.List;
+
+import com.ibm.team.repository.common.TeamRepositoryException;
+
+/**
+ * Source for the batch loader. An implementation of this interface fetches a
+ * chunk of items from the repository with one single request. This makes it
+ * possible to replace the repository by an in-memory implementation.
+ * 
+ * @param <H>
+ *            type of the handles
+ * @param <T>
+ *            type of the fetched items
+ */
+public interface IBatchSource<H, T> {
+
+	/**
+	 * Fetch the items for the given handles with one request. The returned
+	 * list must have the same size and order as the list of handles. Items
+	 * that can not be fetched are represented by null.
+	 * 
+	 * @param handles
+	 *            chunk of handles
+	 * @return fetched items in the order of the handles
+	 * @throws TeamRepositoryException
+	 */
+	List<T> fetch(final List<H> handles) throws TeamRepositoryException;
+
+}
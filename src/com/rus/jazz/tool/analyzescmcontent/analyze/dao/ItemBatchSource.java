@@ -0,0 +1,69 @@
+package com.rus.jazz.tool.analyzescmcontent.analyze.dao;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.ibm.team.repository.client.IItemManager;
+import com.ibm.team.repository.common.IItem;
+import com.ibm.team.repository.common.IItemHandle;
+import com.ibm.team.repository.common.TeamRepositoryException;
+
+/**
+ * Batch source that fetches items with the item manager of the repository. If
+ * properties are defined only this properties will be fetched, otherwise the
+ * complete items.
+ * 
+ * @param <H>
+ *            type of the handles
+ * @param <T>
+ *            type of the fetched items
+ */
+public class ItemBatchSource<H extends IItemHandle, T extends IItem> implements IBatchSource<H, T> {
+
+	private transient final IItemManager itemManager;
+
+	private transient final int flags;
+
+	private transient final Collection<String> properties;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param itemManager
+	 *            the item manager of the repository
+	 * @param flags
+	 *            the flags for the item manager, e.g. IItemManager.DEFAULT
+	 */
+	public ItemBatchSource(final IItemManager itemManager, final int flags) {
+		this(itemManager, flags, null);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param itemManager
+	 *            the item manager of the repository
+	 * @param flags
+	 *            the flags for the item manager, e.g. IItemManager.DEFAULT
+	 * @param properties
+	 *            the properties to fetch or null for the complete items
+	 */
+	public ItemBatchSource(final IItemManager itemManager, final int flags, final Collection<String> properties) {
+		this.itemManager = itemManager;
+		this.flags = flags;
+		this.properties = properties;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<T> fetch(final List<H> handles) throws TeamRepositoryException {
+		List<T> result;
+		if (properties == null) {
+			result = itemManager.fetchCompleteItems(handles, flags, null);
+		} else {
+			result = itemManager.fetchPartialItems(handles, flags, properties, null);
+		}
+		return result;
+	}
+
+}
@@ -0,0 +1,91 @@
+package com.rus.jazz.tool.analyzescmcontent.analyze.dao;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Names of the item properties that are used by the DAOs and the analyze
+ * modules. The DAOs use this names to fetch partial items that contain only
+ * the needed properties.
+ */
+public final class ItemProperties {
+
+	/**
+	 * Name of a component, versionable or contributor.
+	 */
+	public static final String NAME = "name";
+
+	/**
+	 * Comment of a change set.
+	 */
+	public static final String COMMENT = "comment";
+
+	/**
+	 * Author of a change set.
+	 */
+	public static final String AUTHOR = "author";
+
+	/**
+	 * Changes of a change set.
+	 */
+	public static final String CHANGES = "changes";
+
+	/**
+	 * Last change date of a change set.
+	 */
+	public static final String LAST_CHANGE_DATE = "lastChangeDate";
+
+	/**
+	 * Completion state of a change set.
+	 */
+	public static final String COMPLETE = "complete";
+
+	/**
+	 * Content of a file item.
+	 */
+	public static final String CONTENT = "content";
+
+	/**
+	 * Utility class. Should not be instantiated.
+	 */
+	private ItemProperties() {
+
+	}
+
+	/**
+	 * Create an unmodifiable set of property names.
+	 * 
+	 * @param names
+	 *            property names
+	 * @return set of property names
+	 */
+	public static Set<String> of(final String... names) {
+		return Collections.unmodifiableSet(new HashSet<String>(Arrays.asList(names)));
+	}
+
+	/**
+	 * Combine the properties required by the modules with the properties the
+	 * DAO needs itself.
+	 * 
+	 * @param moduleProperties
+	 *            properties of the modules, null if the complete item is
+	 *            needed
+	 * @param daoProperties
+	 *            properties that the DAO needs itself
+	 * @return combined properties or null if the complete item is needed
+	 */
+	public static Set<String> merge(final Collection<String> moduleProperties, final String... daoProperties) {
+		Set<String> result = null;
+
+		if (moduleProperties != null) {
+			result = new HashSet<String>(moduleProperties);
+			result.addAll(Arrays.asList(daoProperties));
+		}
+
+		return result;
+	}
+
+}
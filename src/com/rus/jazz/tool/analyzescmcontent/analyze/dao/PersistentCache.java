@@ -0,0 +1,417 @@
+package com.rus.jazz.tool.analyzescmcontent.analyze.dao;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeParameter;
+import com.rus.jazz.tool.analyzescmcontent.output.RunStatistics;
+
+/**
+ * Local cache for immutable SCM items, that is kept between the analyze runs.
+ * The items are stored as records in append-only files. An index of the
+ * records is built in memory when the cache is opened.
+ * <p>
+ * The cache uses two generations of files. If the current file reaches half of
+ * the maximal size, a new generation is started and the oldest one is
+ * deleted. Records that are read from the older generation are copied to the
+ * current one, so the recently used records survive.
+ */
+public final class PersistentCache {
+
+	private static final Logger LOGGER = LogManager.getLogger(PersistentCache.class.getName());
+
+	private static final String DIRECTORY = "PersistentCache.Directory";
+
+	private static final String MAX_SIZE_MB = "PersistentCache.MaxSizeMB";
+
+	private static final int DEFAULT_MAX_SIZE_MB = 512;
+
+	private static final String PREFIX = "items-";
+
+	private static final String SUFFIX = ".dat";
+
+	private static final Charset UTF8 = Charset.forName("UTF-8");
+
+	private static final String HITS = "Persistent cache hits";
+
+	private static final String MISSES = "Persistent cache misses";
+
+	private static PersistentCache instance;
+
+	private transient final File directory;
+
+	private transient final long maxGenerationSize;
+
+	private transient final Map<String, Location> index;
+
+	private transient long generation;
+
+	private transient long previousGeneration;
+
+	private transient RandomAccessFile current;
+
+	private transient RandomAccessFile previous;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param directory
+	 *            directory of the cache files, null if the cache is disabled
+	 * @param maxSize
+	 *            maximal size of all cache files in bytes
+	 */
+	private PersistentCache(final File directory, final long maxSize) {
+		this.directory = directory;
+		this.maxGenerationSize = maxSize / 2;
+		index = new HashMap<String, Location>();
+	}
+
+	/**
+	 * Return the instance of the cache. The instance will be created and the
+	 * cache files will be opened with the first call. If the cache directory
+	 * is not configured or cannot be used, the cache is disabled.
+	 * 
+	 * @return persistent cache
+	 */
+	public static synchronized PersistentCache getInstance() {
+		if (instance == null) {
+			final String path = SCMAnalyzeParameter.getInstance().getConfiguration().getProperty(DIRECTORY);
+			final long maxSize = SCMAnalyzeParameter.getInstance().getIntegerProperty(MAX_SIZE_MB,
+					DEFAULT_MAX_SIZE_MB) * 1024L * 1024L;
+			if (path == null || path.trim().isEmpty()) {
+				instance = new PersistentCache(null, maxSize);
+			} else {
+				instance = new PersistentCache(new File(path.trim()), maxSize);
+				try {
+					instance.open();
+				} catch (IOException exception) {
+					LOGGER.error("Persistent cache in " + path + " could not be opened, it is disabled", exception);
+					instance.close();
+					instance = new PersistentCache(null, maxSize);
+				}
+			}
+		}
+		return instance;
+	}
+
+	/**
+	 * Returns true, if the cache is configured and could be opened.
+	 * 
+	 * @return true, if the cache is used
+	 */
+	public boolean isEnabled() {
+		return directory != null;
+	}
+
+	/**
+	 * Return a stored record.
+	 * 
+	 * @param key
+	 *            key of the record
+	 * @return the record or null, if the record is not stored
+	 */
+	public synchronized byte[] get(final String key) {
+		byte[] result = null;
+
+		final Location location = isEnabled() ? index.get(key) : null;
+		if (location != null) {
+			try {
+				final RandomAccessFile file = location.generation == generation ? current : previous;
+				result = new byte[location.length];
+				file.seek(location.offset);
+				file.readFully(result);
+
+				if (location.generation != generation) {
+					// keep recently used records in the current generation
+					append(key, result);
+				}
+			} catch (IOException exception) {
+				LOGGER.warn("Record " + key + " could not be read from the persistent cache", exception);
+				index.remove(key);
+				result = null;
+			}
+		}
+
+		RunStatistics.getInstance().add(result == null ? MISSES : HITS, 1);
+		return result;
+	}
+
+	/**
+	 * Returns true, if a record is stored. The record is not read.
+	 * 
+	 * @param key
+	 *            key of the record
+	 * @return true, if the record is stored
+	 */
+	public synchronized boolean contains(final String key) {
+		return isEnabled() && index.containsKey(key);
+	}
+
+	/**
+	 * Store a record. Records are immutable, a record that is already stored
+	 * will not be written again.
+	 * 
+	 * @param key
+	 *            key of the record
+	 * @param value
+	 *            the record
+	 */
+	public synchronized void put(final String key, final byte[] value) {
+		final Location location = isEnabled() ? index.get(key) : null;
+		if (isEnabled() && (location == null || location.generation != generation)) {
+			try {
+				append(key, value);
+			} catch (IOException exception) {
+				LOGGER.warn("Record " + key + " could not be written to the persistent cache", exception);
+			}
+		}
+	}
+
+	/**
+	 * Close the cache files.
+	 */
+	public synchronized void close() {
+		closeFile(current);
+		closeFile(previous);
+		current = null;
+		previous = null;
+	}
+
+	/**
+	 * Open the two newest generations and build the index. Older generations
+	 * are deleted.
+	 */
+	private void open() throws IOException {
+		if (!directory.isDirectory() && !directory.mkdirs()) {
+			throw new IOException("Directory " + directory + " could not be created");
+		}
+
+		final long[] generations = findGenerations();
+		for (int i = 0; i < generations.length - 2; i++) {
+			deleteGeneration(generations[i]);
+		}
+
+		if (generations.length > 1) {
+			previousGeneration = generations[generations.length - 2];
+			previous = new RandomAccessFile(getFile(previousGeneration), "rw");
+			scan(previous, previousGeneration);
+		}
+		generation = generations.length > 0 ? generations[generations.length - 1] : 0;
+		current = new RandomAccessFile(getFile(generation), "rw");
+		scan(current, generation);
+
+		LOGGER.info("Persistent cache in " + directory + " opened with " + index.size() + " records");
+	}
+
+	private long[] findGenerations() {
+		final String[] names = directory.list(new FilenameFilter() {
+			@Override
+			public boolean accept(final File dir, final String name) {
+				return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+			}
+		});
+
+		long[] result = new long[names == null ? 0 : names.length];
+		int count = 0;
+		for (int i = 0; i < result.length; i++) {
+			try {
+				result[count] = Long.parseLong(names[i].substring(PREFIX.length(),
+						names[i].length() - SUFFIX.length()));
+				count++;
+			} catch (NumberFormatException exception) { // NOPMD
+				// not a cache file
+			}
+		}
+		result = Arrays.copyOf(result, count);
+		Arrays.sort(result);
+		return result;
+	}
+
+	/**
+	 * Read all records of a file into the index. An incomplete or damaged
+	 * record at the end of the file is cut off.
+	 */
+	private void scan(final RandomAccessFile file, final long fileGeneration) throws IOException {
+		long offset = 0;
+		file.seek(0);
+		try {
+			while (offset < file.length()) {
+				final int keyLength = file.readInt();
+				if (keyLength < 0 || keyLength > file.length() - file.getFilePointer()) {
+					break;
+				}
+				final byte[] key = new byte[keyLength];
+				file.readFully(key);
+				final int length = file.readInt();
+				if (length < 0 || length > file.length() - file.getFilePointer()) {
+					break;
+				}
+				final long valueOffset = file.getFilePointer();
+				final byte[] value = new byte[length];
+				file.readFully(value);
+				if (file.readLong() != checksum(value)) {
+					break;
+				}
+
+				index.put(new String(key, UTF8), new Location(fileGeneration, valueOffset, length));
+				offset = file.getFilePointer();
+			}
+		} catch (EOFException exception) { // NOPMD
+			// incomplete record at the end of the file
+		}
+
+		if (offset < file.length()) {
+			LOGGER.warn("Persistent cache file of generation " + fileGeneration + " is cut off at " + offset);
+			file.setLength(offset);
+		}
+	}
+
+	private void append(final String key, final byte[] value) throws IOException {
+		if (current.length() > maxGenerationSize) {
+			startGeneration();
+		}
+
+		final byte[] keyBytes = key.getBytes(UTF8);
+		current.seek(current.length());
+		current.writeInt(keyBytes.length);
+		current.write(keyBytes);
+		current.writeInt(value.length);
+		final long valueOffset = current.getFilePointer();
+		current.write(value);
+		current.writeLong(checksum(value));
+
+		index.put(key, new Location(generation, valueOffset, value.length));
+	}
+
+	/**
+	 * Start a new generation and delete the previous one with all its records.
+	 */
+	private void startGeneration() throws IOException {
+		if (previous != null) {
+			closeFile(previous);
+			deleteGeneration(previousGeneration);
+		}
+
+		final Iterator<Location> locations = index.values().iterator();
+		while (locations.hasNext()) {
+			if (locations.next().generation != generation) {
+				locations.remove();
+			}
+		}
+
+		previous = current;
+		previousGeneration = generation;
+		generation++;
+		current = new RandomAccessFile(getFile(generation), "rw");
+		RunStatistics.getInstance().add("Persistent cache generations started", 1);
+	}
+
+	private File getFile(final long fileGeneration) {
+		return new File(directory, PREFIX + fileGeneration + SUFFIX);
+	}
+
+	private void deleteGeneration(final long fileGeneration) {
+		final File file = getFile(fileGeneration);
+		if (file.exists() && !file.delete()) {
+			LOGGER.warn("Persistent cache file " + file + " could not be deleted");
+		}
+	}
+
+	/**
+	 * Write a string, that can be null, to a record.
+	 * 
+	 * @param output
+	 *            the record
+	 * @param value
+	 *            the string or null
+	 * @throws IOException
+	 */
+	static void writeString(final DataOutput output, final String value) throws IOException {
+		if (value == null) {
+			output.writeInt(-1);
+		} else {
+			final byte[] bytes = value.getBytes(UTF8);
+			output.writeInt(bytes.length);
+			output.write(bytes);
+		}
+	}
+
+	/**
+	 * Read a string, that was written with
+	 * {@link #writeString(DataOutput, String)}.
+	 * 
+	 * @param input
+	 *            the record
+	 * @return the string or null
+	 * @throws IOException
+	 */
+	static String readString(final DataInput input) throws IOException {
+		String result = null;
+		final int length = input.readInt();
+		if (length >= 0) {
+			final byte[] bytes = new byte[length];
+			input.readFully(bytes);
+			result = new String(bytes, UTF8);
+		}
+		return result;
+	}
+
+	private static long checksum(final byte[] value) {
+		final CRC32 crc = new CRC32();
+		crc.update(value);
+		return crc.getValue();
+	}
+
+	private static void closeFile(final RandomAccessFile file) {
+		if (file != null) {
+			try {
+				file.close();
+			} catch (IOException exception) {
+				LOGGER.warn("Persistent cache file could not be closed", exception);
+			}
+		}
+	}
+
+	/**
+	 * Position of a record in the cache files.
+	 */
+	private static class Location {
+
+		private transient final long generation;
+
+		private transient final long offset;
+
+		private transient final int length;
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param generation
+		 *            generation of the file
+		 * @param offset
+		 *            offset of the value in the file
+		 * @param length
+		 *            length of the value
+		 */
+		Location(final long generation, final long offset, final int length) {
+			this.generation = generation;
+			this.offset = offset;
+			this.length = length;
+		}
+	}
+
+}
@@ -0,0 +1,86 @@
+package com.rus.jazz.tool.analyzescmcontent.analyze.dao;
+
+import java.util.concurrent.Semaphore;
+
+import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeParameter;
+import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
+import com.rus.jazz.tool.analyzescmcontent.output.RunStatistics;
+
+/**
+ * Limits the number of requests to the repository, that are executed at the
+ * same time by all threads of the analyze. Every request takes a permit before
+ * it is sent and returns it, when the response is read completely.
+ */
+public final class ServerRequestLimiter {
+
+	private static final String MAX_REQUESTS = "ServerRequestLimiter.MaxRequests";
+
+	private static final int DEFAULT_MAX_REQUESTS = 0;
+
+	private static final String WAITS = "Server requests waiting for a permit";
+
+	private static ServerRequestLimiter instance;
+
+	private transient final Semaphore permits;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param maxRequests
+	 *            maximal number of requests at the same time, 0 for no limit
+	 */
+	private ServerRequestLimiter(final int maxRequests) {
+		permits = maxRequests > 0 ? new Semaphore(maxRequests, true) : null;
+	}
+
+	/**
+	 * Return the instance of the limiter. The instance will be created with
+	 * the first call.
+	 * 
+	 * @return server request limiter
+	 */
+	public static synchronized ServerRequestLimiter getInstance() {
+		if (instance == null) {
+			instance = new ServerRequestLimiter(SCMAnalyzeParameter.getInstance().getIntegerProperty(MAX_REQUESTS,
+					DEFAULT_MAX_REQUESTS));
+		}
+		return instance;
+	}
+
+	/**
+	 * Return, if the number of requests is limited.
+	 * 
+	 * @return true, if the requests are limited
+	 */
+	public boolean isLimited() {
+		return permits != null;
+	}
+
+	/**
+	 * Take a permit for a request. Blocks, until a permit is available.
+	 * 
+	 * @throws AnalyzeException
+	 *             if the thread is interrupted while waiting
+	 */
+	public void acquire() throws AnalyzeException {
+		if (permits != null && !permits.tryAcquire()) {
+			RunStatistics.getInstance().add(WAITS, 1);
+			try {
+				permits.acquire();
+			} catch (InterruptedException exception) {
+				Thread.currentThread().interrupt();
+				throw new AnalyzeException("Interrupted while waiting for a server request", exception);
+			}
+		}
+	}
+
+	/**
+	 * Return the permit of a finished request.
+	 */
+	public void release() {
+		if (permits != null) {
+			permits.release();
+		}
+	}
+
+}
@@ -0,0 +1,57 @@
+package com.rus.jazz.tool.analyzescmcontent.analyze.dao;
+
+import java.util.Collection;
+import java.util.List;
+
+import com.ibm.team.repository.common.TeamRepositoryException;
+import com.ibm.team.scm.client.IVersionableManager;
+import com.ibm.team.scm.common.IVersionable;
+import com.ibm.team.scm.common.IVersionableHandle;
+
+/**
+ * Batch source that fetches versionable states with the versionable manager of
+ * the repository. If properties are defined only this properties will be
+ * fetched, otherwise the complete states.
+ */
+public class VersionableBatchSource implements IBatchSource<IVersionableHandle, IVersionable> {
+
+	private transient final IVersionableManager versionableManager;
+
+	private transient final Collection<String> properties;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param versionableManager
+	 *            the versionable manager of the repository
+	 */
+	public VersionableBatchSource(final IVersionableManager versionableManager) {
+		this(versionableManager, null);
+	}
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param versionableManager
+	 *            the versionable manager of the repository
+	 * @param properties
+	 *            the properties to fetch or null for the complete states
+	 */
+	public VersionableBatchSource(final IVersionableManager versionableManager, final Collection<String> properties) {
+		this.versionableManager = versionableManager;
+		this.properties = properties;
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public List<IVersionable> fetch(final List<IVersionableHandle> handles) throws TeamRepositoryException {
+		List<IVersionable> result;
+		if (properties == null) {
+			result = versionableManager.fetchCompleteStates(handles, null);
+		} else {
+			result = versionableManager.fetchPartialStates(handles, properties, null);
+		}
+		return result;
+	}
+
+}
@@ -1,16 +1,21 @@
 package com.rus.jazz.tool.analyzescmcontent.analyze.dao;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 
-import com.ibm.team.filesystem.client.FileSystemCore;
-import com.ibm.team.filesystem.client.IFileContentManager;
 import com.ibm.team.filesystem.common.IFileContent;
 import com.ibm.team.filesystem.common.IFileItem;
 import com.ibm.team.repository.common.TeamRepositoryException;
+import com.ibm.team.scm.client.IVersionableManager;
 import com.ibm.team.scm.common.IVersionable;
 import com.ibm.team.scm.common.IVersionableHandle;
 import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeServerConnection;
 import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
+import com.rus.jazz.tool.analyzescmcontent.analyze.modules.IModule.Level;
+import com.rus.jazz.tool.analyzescmcontent.analyze.modules.ModuleManager;
 
 /**
  * DAO for a Versionable. This class is responsible, that every access to the
@@ -18,10 +23,16 @@ import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
  */
 public class VersionableDAO {
 
+	private static final Logger LOGGER = LogManager.getLogger(VersionableDAO.class.getName());
+
 	private transient final IVersionableHandle handle;
 
 	private transient IVersionable versionable;
 
+	private transient VersionableRecord record;
+
+	private transient ContentLease contentLease;
+
 	private final transient ComponentDAO componentDAO;
 
 	private final transient ChangeSetDAO changeSetDAO;
@@ -52,7 +63,15 @@ public class VersionableDAO {
 	public IVersionable getVersionable() throws AnalyzeException {
 		if (versionable == null) {
 			try {
-				versionable = SCMAnalyzeServerConnection.getInstance().getWorkspaceManager().versionableManager().fetchCompleteState(handle, null);
+				final IVersionableManager manager = SCMAnalyzeServerConnection.getInstance().getWorkspaceManager()
+						.versionableManager();
+				final Set<String> properties = getFetchProperties();
+				if (properties == null) {
+					versionable = manager.fetchCompleteState(handle, null);
+				} else {
+					versionable = manager.fetchPartialState(handle, properties, null);
+				}
+				remember(versionable);
 			} catch (TeamRepositoryException e) {
 				throw new AnalyzeException(e.getMessage(), e);
 			}
@@ -61,6 +80,126 @@ public class VersionableDAO {
 		return versionable;
 	}
 
+	/**
+	 * Return the properties of the versionable that are read by the registered
+	 * file modules.
+	 * 
+	 * @return property names or null for the complete state
+	 */
+	static Set<String> getFetchProperties() {
+		final Set<String> result = ItemProperties.merge(ModuleManager.getInstance().getRequiredProperties(Level.FILE));
+		if (result != null && PersistentCache.getInstance().isEnabled()) {
+			// the record of the persistent cache contains all values
+			result.add(ItemProperties.NAME);
+			result.add(ItemProperties.CONTENT);
+		}
+		return result;
+	}
+
+	/**
+	 * Set the versionable object, if it was already fetched together with the
+	 * other files of the change set.
+	 * 
+	 * @param versionable
+	 *            the fetched versionable object
+	 */
+	void setVersionable(final IVersionable versionable) {
+		this.versionable = versionable;
+		remember(versionable);
+	}
+
+	/**
+	 * Read the values of the file state from the persistent cache.
+	 * 
+	 * @return true, if the state was found in the cache
+	 */
+	boolean loadRecord() {
+		final byte[] bytes = PersistentCache.getInstance().get(VersionableRecord.getKey(handle));
+		if (bytes != null) {
+			try {
+				record = VersionableRecord.fromBytes(bytes);
+			} catch (IOException exception) {
+				LOGGER.warn("File state " + VersionableRecord.getKey(handle) + " could not be read from cache",
+						exception);
+			}
+		}
+		return record != null;
+	}
+
+	/**
+	 * Store the values of a file state in the persistent cache. The states of
+	 * a file are immutable.
+	 */
+	private void remember(final IVersionable versionable) {
+		if (PersistentCache.getInstance().isEnabled() && versionable instanceof IFileItem
+				&& ((IFileItem) versionable).getContent() != null) {
+			record = VersionableRecord.of((IFileItem) versionable);
+			try {
+				PersistentCache.getInstance().put(VersionableRecord.getKey(handle), record.toBytes());
+			} catch (IOException exception) {
+				LOGGER.warn("File state " + VersionableRecord.getKey(handle) + " could not be cached", exception);
+			}
+		}
+	}
+
+	/**
+	 * Return the name of the versionable.
+	 * 
+	 * @return name or null if the versionable not exists
+	 * @throws AnalyzeException
+	 */
+	public String getName() throws AnalyzeException {
+		String result = null;
+		if (record == null) {
+			final IVersionable state = getVersionable();
+			if (state != null) {
+				result = state.getName();
+			}
+		} else {
+			result = record.getName();
+		}
+		return result;
+	}
+
+	/**
+	 * Return, if the versionable is a file.
+	 * 
+	 * @return true, if the versionable is a file
+	 * @throws AnalyzeException
+	 */
+	public boolean isFile() throws AnalyzeException {
+		return record != null || getVersionable() instanceof IFileItem;
+	}
+
+	/**
+	 * Return the size of the file content.
+	 * 
+	 * @return size in bytes
+	 * @throws AnalyzeException
+	 */
+	public long getContentSize() throws AnalyzeException {
+		return record == null ? getContent().getSize() : record.getContentSize();
+	}
+
+	/**
+	 * Return the hash of the file content.
+	 * 
+	 * @return content hash
+	 * @throws AnalyzeException
+	 */
+	public String getContentHash() throws AnalyzeException {
+		return record == null ? getContent().getHash() : record.getContentHash();
+	}
+
+	/**
+	 * Return the handle of the versionable.
+	 * 
+	 * @return versionable handle
+	 */
+	public IVersionableHandle getHandle() {
+		return handle;
+	}
+
 	/**
 	 * If the versionable is a file it returns the content, null otherwise.
 	 * 
@@ -79,23 +218,54 @@ public class VersionableDAO {
 	}
 
 	/**
-	 * Load the content from the repository. This method not cash the content
-	 * because it can need a lot of memory and it is not shure that the content
-	 * is needed twice.
+	 * Return the content lease of the file. The content is downloaded at most
+	 * once for all modules of the row and released together with the DAO.
+	 * 
+	 * @return content lease
+	 * @throws AnalyzeException
+	 */
+	public ContentLease getContentLease() throws AnalyzeException {
+		if (contentLease == null) {
+			contentLease = new ContentLease(this, ModuleManager.getInstance().getRequiredContentLength());
+		}
+		return contentLease;
+	}
+
+	/**
+	 * Download the leased content in advance, if a module will read it.
 	 * 
-	 * @return content fo the file
 	 * @throws AnalyzeException
 	 */
-	public ByteArrayOutputStream retrieveContent() throws AnalyzeException {
-		try {
-			final IFileItem fileItem = (IFileItem) versionable;
-			final IFileContentManager fileContentMgr = FileSystemCore.getContentManager(SCMAnalyzeServerConnection.getInstance().getTeamRepository());
-			final ByteArrayOutputStream output = new ByteArrayOutputStream();
-			fileContentMgr.retrieveContent(fileItem, getContent(), output, null);
+	public void prefetchContent() throws AnalyzeException {
+		if (isFile() && ModuleManager.getInstance().isContentRequired(this)) {
+			getContentLease().prefetch();
+		}
+	}
+
+	/**
+	 * Return only the first bytes of the content. If no module needs more
+	 * bytes, the transfer is stopped as soon as the number of bytes has
+	 * arrived, so large files are not downloaded completely.
+	 * 
+	 * @param numberBytes
+	 *            maximal number of bytes
+	 * @return first bytes of the file, shorter if the file is smaller
+	 * @throws AnalyzeException
+	 */
+	public byte[] retrieveContentPrefix(final int numberBytes) throws AnalyzeException {
+		return getContentLease().getPrefix(numberBytes);
+	}
 
-			return output;
-		} catch (TeamRepositoryException exception) {
-			throw new AnalyzeException(exception.getMessage(), exception);
+	/**
+	 * Release the versionable object after the file was analyzed. Only the
+	 * handle is kept.
+	 */
+	public void release() {
+		versionable = null;
+		record = null;
+		if (contentLease != null) {
+			contentLease.release();
+			contentLease = null;
 		}
 	}
 
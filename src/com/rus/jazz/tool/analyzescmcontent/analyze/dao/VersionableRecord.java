@@ -0,0 +1,100 @@
+package com.rus.jazz.tool.analyzescmcontent.analyze.dao;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import com.ibm.team.filesystem.common.IFileContent;
+import com.ibm.team.filesystem.common.IFileItem;
+import com.ibm.team.scm.common.IVersionableHandle;
+
+/**
+ * The values of a file state, that are stored in the persistent cache. A
+ * state of a file can not be changed.
+ */
+final class VersionableRecord {
+
+	private transient final String name;
+
+	private transient final long contentSize;
+
+	private transient final String contentHash;
+
+	/**
+	 * Constructor.
+	 */
+	private VersionableRecord(final String name, final long contentSize, final String contentHash) {
+		this.name = name;
+		this.contentSize = contentSize;
+		this.contentHash = contentHash;
+	}
+
+	/**
+	 * Return the key of a file state in the persistent cache.
+	 * 
+	 * @param handle
+	 *            handle of the state
+	 * @return the key
+	 */
+	static String getKey(final IVersionableHandle handle) {
+		return "fileState:" + handle.getItemId().getUuidValue() + ':' + handle.getStateId().getUuidValue();
+	}
+
+	/**
+	 * Create the record of a file state. The state must contain all properties
+	 * of {@link VersionableDAO#getFetchProperties()}.
+	 * 
+	 * @param file
+	 *            the fetched file state
+	 * @return the record
+	 */
+	static VersionableRecord of(final IFileItem file) {
+		final IFileContent content = file.getContent();
+		return new VersionableRecord(file.getName(), content.getSize(), content.getHash());
+	}
+
+	/**
+	 * Read a record from its stored form.
+	 * 
+	 * @param bytes
+	 *            the stored record
+	 * @return the record
+	 * @throws IOException
+	 */
+	static VersionableRecord fromBytes(final byte[] bytes) throws IOException {
+		final DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes));
+		return new VersionableRecord(PersistentCache.readString(input), input.readLong(),
+				PersistentCache.readString(input));
+	}
+
+	/**
+	 * Return the stored form of the record.
+	 * 
+	 * @return the stored record
+	 * @throws IOException
+	 */
+	byte[] toBytes() throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		final DataOutputStream output = new DataOutputStream(bytes);
+		PersistentCache.writeString(output, name);
+		output.writeLong(contentSize);
+		PersistentCache.writeString(output, contentHash);
+		output.flush();
+		return bytes.toByteArray();
+	}
+
+	String getName() {
+		return name;
+	}
+
+	long getContentSize() {
+		return contentSize;
+	}
+
+	String getContentHash() {
+		return contentHash;
+	}
+
+}
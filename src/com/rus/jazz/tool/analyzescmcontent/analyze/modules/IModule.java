@@ -1,5 +1,7 @@
 package com.rus.jazz.tool.analyzescmcontent.analyze.modules;
 
+import java.util.Set;
+
 /**
  * The interface of the analyze modules. Each modules muss have an level and an
  * name.
@@ -43,4 +45,13 @@ public interface IModule {
 	 */
 	String getHeader();
 
+	/**
+	 * Return the names of the properties that the module reads from the item
+	 * of its level. The DAOs fetch only the properties required by the
+	 * registered modules. If null is returned the complete item is fetched.
+	 * 
+	 * @return property names or null for the complete item
+	 */
+	Set<String> getRequiredProperties();
+
 }
@@ -2,10 +2,13 @@ package com.rus.jazz.tool.analyzescmcontent.analyze.modules;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.VersionableDAO;
 import com.rus.jazz.tool.analyzescmcontent.analyze.modules.changeset.AbstractChangeSetModule;
 import com.rus.jazz.tool.analyzescmcontent.analyze.modules.component.AbstractComponentModule;
 import com.rus.jazz.tool.analyzescmcontent.analyze.modules.file.AbstractFileModule;
@@ -122,6 +125,93 @@ public final class ModuleManager {
 		return changeSetsModules;
 	}
 
+	/**
+	 * Return, if at least one module on change set level reads the author of
+	 * the change set.
+	 * 
+	 * @return true, if the author is needed, otherwise false
+	 */
+	public boolean isAuthorRequired() {
+		boolean result = false;
+		for (final AbstractChangeSetModule module : changeSetsModules) {
+			if (module.isAuthorRequired()) {
+				result = true;
+				break;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Return, if at least one module on component or file level reads the
+	 * owner of the component.
+	 * 
+	 * @return true, if the component owner is needed, otherwise false
+	 */
+	public boolean isComponentOwnerRequired() {
+		boolean result = false;
+		for (final AbstractComponentModule module : componentModules) {
+			result = result || module.isComponentOwnerRequired();
+		}
+		for (final AbstractFileModule module : fileModules) {
+			result = result || module.isComponentOwnerRequired();
+		}
+		return result;
+	}
+
+	/**
+	 * Return, if any module on file level will read the content of the file.
+	 * 
+	 * @param fileDAO
+	 *            the file
+	 * @return true, if the content will be read
+	 * @throws AnalyzeException
+	 */
+	public boolean isContentRequired(final VersionableDAO fileDAO) throws AnalyzeException {
+		boolean result = false;
+		for (final AbstractFileModule module : fileModules) {
+			result = result || module.isContentRequired(fileDAO);
+		}
+		return result;
+	}
+
+	/**
+	 * Return the number of content bytes, that the modules on file level read
+	 * together.
+	 * 
+	 * @return maximum content length of all file modules
+	 */
+	public int getRequiredContentLength() {
+		int result = 0;
+		for (final AbstractFileModule module : fileModules) {
+			result = Math.max(result, module.getRequiredContentLength());
+		}
+		return result;
+	}
+
+	/**
+	 * Return the item properties that are required by all modules of a level.
+	 * If one of the modules needs the complete item, null will be returned.
+	 * 
+	 * @param level
+	 *            level of the modules
+	 * @return property names or null for the complete item
+	 */
+	public Set<String> getRequiredProperties(final IModule.Level level) {
+		Set<String> result = new HashSet<String>();
+		for (final IModule module : moduleMap.values()) {
+			if (module.getLevel() == level) {
+				final Set<String> properties = module.getRequiredProperties();
+				if (properties == null) {
+					result = null;
+					break;
+				}
+				result.addAll(properties);
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Return the ordered list of modules names. All levels are included in this
 	 * list.
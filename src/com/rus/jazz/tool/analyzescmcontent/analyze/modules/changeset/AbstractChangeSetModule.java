@@ -1,5 +1,7 @@
 package com.rus.jazz.tool.analyzescmcontent.analyze.modules.changeset;
 
+import java.util.Set;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -30,6 +32,15 @@ public abstract class AbstractChangeSetModule implements IModule {
 		return Level.CHANGE_SET;
 	}
 
+	/**
+	 * Return null, so that the complete item is fetched. Modules that know
+	 * which properties they read should override this method.
+	 */
+	@Override
+	public Set<String> getRequiredProperties() {
+		return null;
+	}
+
 	/**
 	 * Execute the analyze of the change set
 	 * 
@@ -41,6 +52,17 @@ public abstract class AbstractChangeSetModule implements IModule {
 	 */
 	abstract public void execute(final ChangeSetDAO changeSetDAO, final Result result) throws AnalyzeException;
 	
+	/**
+	 * Return, if the module reads the author of the change set. For such
+	 * modules the authors are fetched together for all change sets of a
+	 * chunk.
+	 * 
+	 * @return true, if the author is needed, otherwise false
+	 */
+	public boolean isAuthorRequired() {
+		return false;
+	}
+
 	/**
 	 * Publish an error message ot the result and the log.
 	 * 
@@ -1,11 +1,13 @@
 package com.rus.jazz.tool.analyzescmcontent.analyze.modules.changeset;
 
 import java.util.Date;
+import java.util.Set;
 
 import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeParameter;
 import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
 import com.rus.jazz.tool.analyzescmcontent.analyze.Result;
 import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ChangeSetDAO;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ItemProperties;
 
 /**
  * Analyze the ceration date of teh change set.
@@ -17,6 +19,8 @@ public class ChangeSetCreationDate extends AbstractChangeSetModule {
 	 */
 	public static final String MODULE_NAME = "component->changeSet.creationdate";
 
+	private static final Set<String> PROPERTIES = ItemProperties.of(ItemProperties.LAST_CHANGE_DATE);
+
 	/**
 	 * Constructor.
 	 */
@@ -29,6 +33,11 @@ public class ChangeSetCreationDate extends AbstractChangeSetModule {
 		return MODULE_NAME;
 	}
 
+	@Override
+	public Set<String> getRequiredProperties() {
+		return PROPERTIES;
+	}
+
 	@Override
 	public String getHeader() {
 		return "Change Set Creation Date";
@@ -36,7 +45,7 @@ public class ChangeSetCreationDate extends AbstractChangeSetModule {
 
 	@Override
 	public void execute(final ChangeSetDAO changeSetDAO, final Result result) throws AnalyzeException {
-		final Date date = changeSetDAO.getChangeSet().getLastChangeDate();
+		final Date date = changeSetDAO.getLastChangeDate();
 		result.addResult(SCMAnalyzeParameter.getInstance().getDateFormat().format(date), this);
 	}
 
@@ -1,8 +1,11 @@
 package com.rus.jazz.tool.analyzescmcontent.analyze.modules.changeset;
 
+import java.util.Set;
+
 import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
 import com.rus.jazz.tool.analyzescmcontent.analyze.Result;
 import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ChangeSetDAO;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ItemProperties;
 
 /**
  * Counts the number of files in a change set.
@@ -14,6 +17,8 @@ public class ChangeSetFileCount extends AbstractChangeSetModule {
 	 */
 	public static final String MODULE_NAME = "component->changeSet.fileCount()";
 
+	private static final Set<String> PROPERTIES = ItemProperties.of(ItemProperties.CHANGES);
+
 	/**
 	 * Default Constructor.
 	 */
@@ -26,6 +31,11 @@ public class ChangeSetFileCount extends AbstractChangeSetModule {
 		return MODULE_NAME;
 	}
 
+	@Override
+	public Set<String> getRequiredProperties() {
+		return PROPERTIES;
+	}
+
 	@Override
 	public String getHeader() {
 		return "Number of files in Change Set";
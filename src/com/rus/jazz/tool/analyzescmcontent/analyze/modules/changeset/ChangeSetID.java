@@ -1,7 +1,10 @@
 package com.rus.jazz.tool.analyzescmcontent.analyze.modules.changeset;
 
+import java.util.Set;
+
 import com.rus.jazz.tool.analyzescmcontent.analyze.Result;
 import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ChangeSetDAO;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ItemProperties;
 
 /**
  * Fetch the ID of the change set.
@@ -12,6 +15,8 @@ public class ChangeSetID extends AbstractChangeSetModule {
 	 * The name of the module
 	 */
 	public static final String MODULE_NAME = "component->changeSet.id";
+
+	private static final Set<String> PROPERTIES = ItemProperties.of();
 	
 	/**
 	 * Constructor.
@@ -30,6 +35,11 @@ public class ChangeSetID extends AbstractChangeSetModule {
 		result.addResult(changeSetDao.getHandle().getItemId().getUuidValue(), this);
 	}
 
+	@Override
+	public Set<String> getRequiredProperties() {
+		return PROPERTIES;
+	}
+
 	@Override
 	public String getHeader() {
 		return "ChangeSet ID";
@@ -1,8 +1,11 @@
 package com.rus.jazz.tool.analyzescmcontent.analyze.modules.changeset;
 
+import java.util.Set;
+
 import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
 import com.rus.jazz.tool.analyzescmcontent.analyze.Result;
 import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ChangeSetDAO;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ItemProperties;
 
 /**
  * Analyze the owner of a change set.
@@ -14,6 +17,8 @@ public class ChangeSetOwner extends AbstractChangeSetModule {
 	 */
 	public static final String MODULE_NAME = "component->changeset.owner";
 
+	private static final Set<String> PROPERTIES = ItemProperties.of(ItemProperties.AUTHOR);
+
 	/**
 	 * Constructor.
 	 */
@@ -26,11 +31,21 @@ public class ChangeSetOwner extends AbstractChangeSetModule {
 		return MODULE_NAME;
 	}
 
+	@Override
+	public Set<String> getRequiredProperties() {
+		return PROPERTIES;
+	}
+
 	@Override
 	public String getHeader() {
 		return "Change Set Owner";
 	}
 
+	@Override
+	public boolean isAuthorRequired() {
+		return true;
+	}
+
 	@Override
 	public void execute(final ChangeSetDAO changeSetDAO, final Result result) throws AnalyzeException {
 		result.addResult(changeSetDAO.getAuthor().getName(), this);
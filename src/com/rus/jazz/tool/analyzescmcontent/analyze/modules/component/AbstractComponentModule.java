@@ -1,5 +1,7 @@
 package com.rus.jazz.tool.analyzescmcontent.analyze.modules.component;
 
+import java.util.Set;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -30,6 +32,15 @@ public abstract class AbstractComponentModule implements IModule {
 		return Level.COMPONENT;
 	}
 
+	/**
+	 * Return null, so that the complete item is fetched. Modules that know
+	 * which properties they read should override this method.
+	 */
+	@Override
+	public Set<String> getRequiredProperties() {
+		return null;
+	}
+
 	/**
 	 * Execute the analyze of the change set
 	 * 
@@ -41,6 +52,17 @@ public abstract class AbstractComponentModule implements IModule {
 	 */
 	abstract public void execute(final ComponentDAO componentDAO, final Result result) throws AnalyzeException;
 
+	/**
+	 * Return, if the module reads the owner of the component. For such modules
+	 * the owners of all components are resolved together before the analyze
+	 * starts.
+	 * 
+	 * @return true, if the component owner is needed, otherwise false
+	 */
+	public boolean isComponentOwnerRequired() {
+		return false;
+	}
+
 	/**
 	 * Publish an error message of the result and the log.
 	 * 
@@ -1,8 +1,11 @@
 package com.rus.jazz.tool.analyzescmcontent.analyze.modules.component;
 
+import java.util.Set;
+
 import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
 import com.rus.jazz.tool.analyzescmcontent.analyze.Result;
 import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ComponentDAO;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ItemProperties;
 
 /**
  * Count all Change Sets matching the specified time in the component.
@@ -14,6 +17,8 @@ public class ComponentChangeSetCount extends AbstractComponentModule {
 	 */
 	public static final String MODULE_NAME = "component.changeSetCount()";
 
+	private static final Set<String> PROPERTIES = ItemProperties.of();
+
 	/**
 	 * Default Constructor
 	 */
@@ -26,6 +31,11 @@ public class ComponentChangeSetCount extends AbstractComponentModule {
 		return MODULE_NAME;
 	}
 
+	@Override
+	public Set<String> getRequiredProperties() {
+		return PROPERTIES;
+	}
+
 	@Override
 	public String getHeader() {
 		return "Number of Change Sets in Component";
@@ -33,7 +43,7 @@ public class ComponentChangeSetCount extends AbstractComponentModule {
 
 	@Override
 	public void execute(final ComponentDAO componentDAO, final Result result) throws AnalyzeException {
-		result.addResult(Integer.toString(componentDAO.getChangeSetsForComponent().size()), this);
+		result.addResult(Integer.toString(componentDAO.getChangeSetCount()), this);
 	}
 
 }
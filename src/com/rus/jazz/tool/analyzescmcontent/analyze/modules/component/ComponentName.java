@@ -1,8 +1,11 @@
 package com.rus.jazz.tool.analyzescmcontent.analyze.modules.component;
 
+import java.util.Set;
+
 import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
 import com.rus.jazz.tool.analyzescmcontent.analyze.Result;
 import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ComponentDAO;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ItemProperties;
 
 /**
  * Fetch the name of the component.
@@ -14,6 +17,8 @@ public class ComponentName extends AbstractComponentModule {
 	 */
 	public static final String MODULE_NAME = "component.name";
 
+	private static final Set<String> PROPERTIES = ItemProperties.of(ItemProperties.NAME);
+
 	/**
 	 * Constructor.
 	 */
@@ -31,6 +36,11 @@ public class ComponentName extends AbstractComponentModule {
 			result.addResult(componentDAO.getComponent().getName(), this);
 	}
 
+	@Override
+	public Set<String> getRequiredProperties() {
+		return PROPERTIES;
+	}
+
 	@Override
 	public String getHeader() {
 		return "Component Name";
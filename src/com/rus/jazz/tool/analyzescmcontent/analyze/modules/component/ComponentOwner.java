@@ -1,8 +1,11 @@
 package com.rus.jazz.tool.analyzescmcontent.analyze.modules.component;
 
+import java.util.Set;
+
 import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
 import com.rus.jazz.tool.analyzescmcontent.analyze.Result;
 import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ComponentDAO;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ItemProperties;
 
 /**
  * Component module that extracts the owner of the component. If the owner of a
@@ -15,6 +18,8 @@ public class ComponentOwner extends AbstractComponentModule {
 	 */
 	public static final String MODULE_NAME = "component.owner";
 
+	private static final Set<String> PROPERTIES = ItemProperties.of();
+
 	/**
 	 * Constructor.
 	 */
@@ -27,6 +32,16 @@ public class ComponentOwner extends AbstractComponentModule {
 		return MODULE_NAME;
 	}
 
+	@Override
+	public Set<String> getRequiredProperties() {
+		return PROPERTIES;
+	}
+
+	@Override
+	public boolean isComponentOwnerRequired() {
+		return true;
+	}
+
 	@Override
 	public String getHeader() {
 		return "Component Owner";
@@ -1,5 +1,7 @@
 package com.rus.jazz.tool.analyzescmcontent.analyze.modules.file;
 
+import java.util.Set;
+
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -30,6 +32,15 @@ public abstract class AbstractFileModule implements IModule {
 		return Level.FILE;
 	}
 
+	/**
+	 * Return null, so that the complete item is fetched. Modules that know
+	 * which properties they read should override this method.
+	 */
+	@Override
+	public Set<String> getRequiredProperties() {
+		return null;
+	}
+
 	/**
 	 * Execute the analyze of the change set
 	 * 
@@ -41,6 +52,51 @@ public abstract class AbstractFileModule implements IModule {
 	 */
 	abstract public void execute(final VersionableDAO fileDAO, final Result result) throws AnalyzeException;
 	
+	/**
+	 * Return, if the module reads the owner of the component. For such modules
+	 * the owners of all components are resolved together before the analyze
+	 * starts.
+	 * 
+	 * @return true, if the component owner is needed, otherwise false
+	 */
+	public boolean isComponentOwnerRequired() {
+		return false;
+	}
+
+	/**
+	 * Return the number of content bytes, that the module reads. The content
+	 * of a file is downloaded only once for all modules, with the maximum
+	 * length of all modules.
+	 * 
+	 * @return number of bytes, 0 if the content is not read and
+	 *         Integer.MAX_VALUE for the complete content
+	 */
+	public int getRequiredContentLength() {
+		return 0;
+	}
+
+	/**
+	 * Return, if the module will read the content of the file. Modules that
+	 * cache their results by the content should override this method.
+	 * 
+	 * @param fileDAO
+	 *            the file
+	 * @return true, if the content will be read
+	 * @throws AnalyzeException
+	 */
+	public boolean isContentRequired(final VersionableDAO fileDAO) throws AnalyzeException {
+		return getRequiredContentLength() > 0;
+	}
+
+	/**
+	 * Add the statistics of the module to the run statistics, when the analyze
+	 * is finished. Modules that collect statistics should override this
+	 * method.
+	 */
+	public void publishStatistics() {
+		// no statistics by default
+	}
+
 	/**
 	 * Publish an error message ot the result and the log.
 	 * 
@@ -0,0 +1,156 @@
+package com.rus.jazz.tool.analyzescmcontent.analyze.modules.file;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeParameter;
+import com.rus.jazz.tool.analyzescmcontent.output.RunStatistics;
+
+/**
+ * Cache for the results of file modules that are derived from the content of
+ * a file. The results are stored by the hash of the content, the module name
+ * and the module configuration. So the same content is only downloaded and
+ * classified once, even if it is part of several change sets. The cache holds
+ * a limited number of results and removes the least recently used ones.
+ */
+public final class ContentResultCache {
+
+	private static final String MAX_ENTRIES = "ContentResultCache.MaxEntries";
+
+	private static final int DEFAULT_MAX_ENTRIES = 10000;
+
+	private static final String HITS = "Content result cache hits";
+
+	private static final String MISSES = "Content result cache misses";
+
+	private static final String BYTES_AVOIDED = "Content result cache bytes avoided";
+
+	private static ContentResultCache instance;
+
+	private transient final Map<String, String> results;
+
+	private transient final int maxEntries;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param maxEntries
+	 *            maximal number of cached results, 0 disables the cache
+	 */
+	private ContentResultCache(final int maxEntries) {
+		this.maxEntries = maxEntries;
+		results = new LinkedHashMap<String, String>(16, 0.75f, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+				return size() > ContentResultCache.this.maxEntries;
+			}
+		};
+	}
+
+	/**
+	 * Return the instance of the cache. The instance will be created with the
+	 * first call.
+	 * 
+	 * @return content result cache
+	 */
+	public static synchronized ContentResultCache getInstance() {
+		if (instance == null) {
+			instance = new ContentResultCache(SCMAnalyzeParameter.getInstance().getIntegerProperty(MAX_ENTRIES,
+					DEFAULT_MAX_ENTRIES));
+		}
+		return instance;
+	}
+
+	/**
+	 * Create the key of a module result for a content.
+	 * 
+	 * @param contentHash
+	 *            the hash of the file content
+	 * @param moduleName
+	 *            the name of the module
+	 * @param configuration
+	 *            everything else the result depends on, e.g. the module
+	 *            configuration
+	 * @return the key or null, if the content has no hash
+	 */
+	public static String createKey(final String contentHash, final String moduleName,
+			final String... configuration) {
+		String result = null;
+
+		if (contentHash != null) {
+			final StringBuilder key = new StringBuilder(contentHash).append('|').append(moduleName);
+			for (final String value : configuration) {
+				key.append('|').append(value);
+			}
+			result = key.toString();
+		}
+
+		return result;
+	}
+
+	/**
+	 * Return the cached result.
+	 * 
+	 * @param key
+	 *            the key from {@link #createKey(String, String, String...)}
+	 * @param readBytes
+	 *            the number of content bytes, that the module would read, for
+	 *            counting the avoided bytes
+	 * @return the result or null, if the result is not cached
+	 */
+	public synchronized String get(final String key, final long readBytes) {
+		String result = null;
+
+		if (key != null && maxEntries > 0) {
+			result = results.get(key);
+			if (result == null) {
+				RunStatistics.getInstance().add(MISSES, 1);
+			} else {
+				RunStatistics.getInstance().add(HITS, 1);
+				RunStatistics.getInstance().add(BYTES_AVOIDED, readBytes);
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Return, if a result is cached. The cache statistics are not changed.
+	 * 
+	 * @param key
+	 *            the key from {@link #createKey(String, String, String...)}
+	 * @return true, if the result is cached
+	 */
+	public synchronized boolean contains(final String key) {
+		return key != null && results.containsKey(key);
+	}
+
+	/**
+	 * Store a result.
+	 * 
+	 * @param key
+	 *            the key from {@link #createKey(String, String, String...)}
+	 * @param result
+	 *            the result of the module
+	 */
+	public synchronized void put(final String key, final String result) {
+		if (key != null && maxEntries > 0) {
+			results.put(key, result);
+		}
+	}
+
+	/**
+	 * Add the hit rate of the cache to the run statistics.
+	 */
+	public void publishHitRate() {
+		final long hits = RunStatistics.getInstance().get(HITS);
+		final long total = hits + RunStatistics.getInstance().get(MISSES);
+		if (total > 0) {
+			RunStatistics.getInstance().add("Content result cache hit rate (%)", hits * 100 / total);
+		}
+	}
+
+}
@@ -1,11 +1,12 @@
 package com.rus.jazz.tool.analyzescmcontent.analyze.modules.file;
 
-import java.io.ByteArrayOutputStream;
+import java.util.Set;
 
 import com.rus.jazz.tool.preventbinarydeliver.whitelist.checker.NonBinaryChecker;
 import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeParameter;
 import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
 import com.rus.jazz.tool.analyzescmcontent.analyze.Result;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ItemProperties;
 import com.rus.jazz.tool.analyzescmcontent.analyze.dao.VersionableDAO;
 
 /**
@@ -21,6 +22,8 @@ public class FileContentType extends AbstractFileModule {
 	 */
 	public static final String MODULE_NAME = "component->changeSet->file.contenttype";
 
+	private static final Set<String> PROPERTIES = ItemProperties.of(ItemProperties.CONTENT);
+
 	private transient final int numberBytes;
 
 	/**
@@ -41,15 +44,43 @@ public class FileContentType extends AbstractFileModule {
 		return MODULE_NAME;
 	}
 
+	@Override
+	public Set<String> getRequiredProperties() {
+		return PROPERTIES;
+	}
+
+	@Override
+	public int getRequiredContentLength() {
+		return numberBytes;
+	}
+
 	@Override
 	public String getHeader() {
 		return "Content Type";
 	}
 
+	@Override
+	public boolean isContentRequired(final VersionableDAO fileDAO) throws AnalyzeException {
+		return !ContentResultCache.getInstance().contains(createKey(fileDAO));
+	}
+
+	private String createKey(final VersionableDAO fileDAO) throws AnalyzeException {
+		return ContentResultCache.createKey(fileDAO.getContentHash(), getName(), Integer.toString(numberBytes));
+	}
+
 	@Override
 	public void execute(final VersionableDAO fileDAO, final Result result) throws AnalyzeException {
-		final ByteArrayOutputStream output = fileDAO.retrieveContent();
-		final String isBinary = NonBinaryChecker.isNonBinary(output, numberBytes) ? "Non Binary" : "Binary";
+		final ContentResultCache cache = ContentResultCache.getInstance();
+		final String key = createKey(fileDAO);
+		String isBinary = cache.get(key, Math.min(fileDAO.getContentSize(), numberBytes));
+
+		if (isBinary == null) {
+			// only the checked bytes are downloaded
+			final byte[] prefix = fileDAO.retrieveContentPrefix(numberBytes);
+			isBinary = NonBinaryChecker.isNonBinary(prefix, prefix.length, numberBytes) ? "Non Binary" : "Binary";
+			cache.put(key, isBinary);
+		}
+
 		result.addResult(isBinary, this);
 	}
 
@@ -1,16 +1,18 @@
 package com.rus.jazz.tool.analyzescmcontent.analyze.modules.file;
 
-import com.ibm.team.filesystem.client.FileSystemCore;
-import com.ibm.team.filesystem.common.IFileItem;
+import java.util.Map;
+import java.util.Set;
+
 import com.rus.jazz.tool.preventbinarydeliver.whitelist.CheckFileException;
 import com.rus.jazz.tool.preventbinarydeliver.whitelist.ConfigurationException;
 import com.rus.jazz.tool.preventbinarydeliver.whitelist.WhiteListConfiguration;
 import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeParameter;
-import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeServerConnection;
 import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
 import com.rus.jazz.tool.analyzescmcontent.analyze.Result;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ItemProperties;
 import com.rus.jazz.tool.analyzescmcontent.analyze.dao.VersionableDAO;
 import com.rus.jazz.tool.analyzescmcontent.analyze.modules.file.preventbinaryclient.FileCheckItemClientImpl;
+import com.rus.jazz.tool.analyzescmcontent.output.RunStatistics;
 
 /**
  * Verify if this file is restricted by the white-list.
@@ -22,10 +24,14 @@ public class FileIsRestricted extends AbstractFileModule {
 	 */
 	public static final String MODULE_NAME = "component->changeSet->file.restricted";
 
+	private static final Set<String> PROPERTIES = ItemProperties.of(ItemProperties.NAME, ItemProperties.CONTENT);
+
 	private static final String WHITE_LIST_FILE = "FileIsRestricted.WhiteListFile";
 
 	private transient final WhiteListConfiguration whiteList;
 
+	private transient final String whiteListFile;
+
 	/**
 	 * Constructor.
 	 * 
@@ -34,8 +40,7 @@ public class FileIsRestricted extends AbstractFileModule {
 	public FileIsRestricted() throws AnalyzeException {
 		super();
 		try {
-			final String whiteListFile = SCMAnalyzeParameter.getInstance().getConfiguration()
-					.getProperty(WHITE_LIST_FILE);
+			whiteListFile = SCMAnalyzeParameter.getInstance().getConfiguration().getProperty(WHITE_LIST_FILE);
 			if (whiteListFile == null) {
 				throw new AnalyzeException("Necessary property '" + WHITE_LIST_FILE
 						+ "' is not defined in properties file.");
@@ -54,20 +59,90 @@ public class FileIsRestricted extends AbstractFileModule {
 		return MODULE_NAME;
 	}
 
+	@Override
+	public Set<String> getRequiredProperties() {
+		return PROPERTIES;
+	}
+
+	@Override
+	public boolean isComponentOwnerRequired() {
+		return true;
+	}
+
+	/**
+	 * The white list checkers read only the prefixes of the contents, that
+	 * they check.
+	 */
+	@Override
+	public int getRequiredContentLength() {
+		return whiteList.getRequiredContentLength();
+	}
+
 	@Override
 	public String getHeader() {
 		return "File is restricted";
 	}
 
+	/**
+	 * The content is not required, if the result is cached or if a checker
+	 * allows the file without reading the content.
+	 */
+	@Override
+	public boolean isContentRequired(final VersionableDAO fileDAO) throws AnalyzeException {
+		final String fileName = fileDAO.getName();
+		final String compOwnerName = fileDAO.getComponentDAO().getOwner().getComponentOwnerName();
+		boolean result = !ContentResultCache.getInstance().contains(createKey(fileDAO, fileName, compOwnerName));
+		if (result) {
+			try {
+				result = !whiteList.isPermittedWithoutContent(new FileCheckItemClientImpl(fileName,
+						fileDAO.getContentSize(), fileDAO.getContentLease()), compOwnerName);
+			} catch (final CheckFileException exception) {
+				throw new AnalyzeException(exception.getMessage(), exception);
+			}
+		}
+		return result;
+	}
+
+	private String createKey(final VersionableDAO fileDAO, final String fileName, final String compOwnerName)
+			throws AnalyzeException {
+		return ContentResultCache.createKey(fileDAO.getContentHash(), getName(), whiteListFile, fileName,
+				compOwnerName);
+	}
+
+	/**
+	 * Publish for each white list checker, that reads the content, how often a
+	 * cheaper checker allowed the file before.
+	 */
+	@Override
+	public void publishStatistics() {
+		for (final Map.Entry<String, Long> entry : whiteList.getSkippedContentChecks().entrySet()) {
+			RunStatistics.getInstance().add("White list content checks avoided by " + entry.getKey(),
+					entry.getValue().longValue());
+		}
+	}
+
 	@Override
 	public void execute(final VersionableDAO fileDAO, final Result result) throws AnalyzeException {
 		String restricted = "unknown";
 		try {
-			final FileCheckItemClientImpl fileCheck = new FileCheckItemClientImpl((IFileItem) fileDAO.getVersionable(),
-					FileSystemCore.getContentManager(SCMAnalyzeServerConnection.getInstance().getTeamRepository()));
+			final String fileName = fileDAO.getName();
 			final String compOwnerName = fileDAO.getComponentDAO().getOwner().getComponentOwnerName();
-			final boolean permitted = whiteList.isPermitted(fileCheck, compOwnerName);
-			restricted = Boolean.toString(!permitted);
+
+			// the white list result depends on the content, the file name and
+			// the component owner
+			final ContentResultCache cache = ContentResultCache.getInstance();
+			final String key = createKey(fileDAO, fileName, compOwnerName);
+			final String cached = cache.get(key, Math.min(fileDAO.getContentSize(), getRequiredContentLength()));
+
+			if (cached == null) {
+				final FileCheckItemClientImpl fileCheck = new FileCheckItemClientImpl(fileName,
+						fileDAO.getContentSize(), fileDAO.getContentLease());
+				final boolean permitted = whiteList.isPermitted(fileCheck, compOwnerName);
+				restricted = Boolean.toString(!permitted);
+				cache.put(key, restricted);
+			} else {
+				restricted = cached;
+			}
 
 			result.addResult(restricted, this);
 		} catch (final CheckFileException exception) {
@@ -1,8 +1,10 @@
 package com.rus.jazz.tool.analyzescmcontent.analyze.modules.file;
 
-import com.ibm.team.scm.common.IVersionable;
+import java.util.Set;
+
 import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
 import com.rus.jazz.tool.analyzescmcontent.analyze.Result;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ItemProperties;
 import com.rus.jazz.tool.analyzescmcontent.analyze.dao.VersionableDAO;
 
 /**
@@ -15,6 +17,8 @@ public class FileName extends AbstractFileModule {
 	 */
 	public static final String MODULE_NAME = "component->changeSet->file.name";
 
+	private static final Set<String> PROPERTIES = ItemProperties.of(ItemProperties.NAME);
+
 	/**
 	 * Constructor.
 	 */
@@ -30,15 +34,20 @@ public class FileName extends AbstractFileModule {
 	@Override
 	public void execute(final VersionableDAO fileDAO, final Result result) {
 		try {
-			final IVersionable versionable = fileDAO.getVersionable();
-			if (versionable != null) {
-				result.addResult(fileDAO.getVersionable().getName(), this);
+			final String name = fileDAO.getName();
+			if (name != null) {
+				result.addResult(name, this);
 			}
 		} catch (final AnalyzeException e) {
 			publishError(result, e);
 		}
 	}
 
+	@Override
+	public Set<String> getRequiredProperties() {
+		return PROPERTIES;
+	}
+
 	@Override
 	public String getHeader() {
 		return "File Name";
@@ -1,7 +1,10 @@
 package com.rus.jazz.tool.analyzescmcontent.analyze.modules.file;
 
+import java.util.Set;
+
 import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
 import com.rus.jazz.tool.analyzescmcontent.analyze.Result;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ItemProperties;
 import com.rus.jazz.tool.analyzescmcontent.analyze.dao.VersionableDAO;
 
 /**
@@ -14,6 +17,8 @@ public class FileSize extends AbstractFileModule {
 	 */
 	public static final String MODULE_NAME = "component->changeSet->file.size";
 
+	private static final Set<String> PROPERTIES = ItemProperties.of(ItemProperties.CONTENT);
+
 	/**
 	 * Constructor.
 	 */
@@ -26,6 +31,11 @@ public class FileSize extends AbstractFileModule {
 		return MODULE_NAME;
 	}
 
+	@Override
+	public Set<String> getRequiredProperties() {
+		return PROPERTIES;
+	}
+
 	@Override
 	public String getHeader() {
 		return "File Size";
@@ -33,7 +43,7 @@ public class FileSize extends AbstractFileModule {
 
 	@Override
 	public void execute(final VersionableDAO fileDAO, final Result result) throws AnalyzeException {
-		final long size = fileDAO.getContent().getSize();
+		final long size = fileDAO.getContentSize();
 		result.addResult(Long.toString(size), this);
 	}
 
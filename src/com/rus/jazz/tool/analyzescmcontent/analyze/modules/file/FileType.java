@@ -1,7 +1,10 @@
 package com.rus.jazz.tool.analyzescmcontent.analyze.modules.file;
 
+import java.util.Set;
+
 import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
 import com.rus.jazz.tool.analyzescmcontent.analyze.Result;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ItemProperties;
 import com.rus.jazz.tool.analyzescmcontent.analyze.dao.VersionableDAO;
 
 /**
@@ -14,6 +17,8 @@ public class FileType extends AbstractFileModule {
 	 */
 	public static final String MODULE_NAME = "component->changeSet->file.type";
 
+	private static final Set<String> PROPERTIES = ItemProperties.of(ItemProperties.NAME);
+
 	/**
 	 * Constructor.
 	 */
@@ -26,6 +31,11 @@ public class FileType extends AbstractFileModule {
 		return MODULE_NAME;
 	}
 
+	@Override
+	public Set<String> getRequiredProperties() {
+		return PROPERTIES;
+	}
+
 	@Override
 	public String getHeader() {
 		return "File type";
@@ -33,7 +43,7 @@ public class FileType extends AbstractFileModule {
 
 	@Override
 	public void execute(final VersionableDAO fileDAO, final Result result) throws AnalyzeException {
-		final String fileName = fileDAO.getVersionable().getName();
+		final String fileName = fileDAO.getName();
 		final String filetype = extractFileType(fileName);
 		result.addResult(filetype, this);
 	}
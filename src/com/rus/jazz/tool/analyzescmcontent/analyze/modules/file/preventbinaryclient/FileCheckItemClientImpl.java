@@ -1,13 +1,13 @@
 package com.rus.jazz.tool.analyzescmcontent.analyze.modules.file.preventbinaryclient;
 
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import com.ibm.team.filesystem.client.IFileContentManager;
-import com.ibm.team.filesystem.common.IFileItem;
-import com.ibm.team.repository.common.TeamRepositoryException;
+import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ContentLease;
 import com.rus.jazz.tool.preventbinarydeliver.whitelist.AbstractFile;
 import com.rus.jazz.tool.preventbinarydeliver.whitelist.CheckFileException;
 
@@ -22,44 +22,66 @@ public class FileCheckItemClientImpl extends AbstractFile {
 	private static final Logger LOGGER = LogManager.getLogger(FileCheckItemClientImpl.class.getName());
 
 	/**
-	 * The RTC file item.
+	 * The name of the file.
 	 */
-	private final transient IFileItem item;
+	private final transient String name;
 
 	/**
-	 * The file content manager
+	 * The size of the file content.
 	 */
-	private final transient IFileContentManager fileContentMgr;
+	private final transient long size;
+
+	/**
+	 * The content of the file, shared with the other modules
+	 */
+	private final transient ContentLease contentLease;
 
 	/**
 	 * Constrcutor.
 	 * 
-	 * @param item
-	 * @param fileContentMgr 
+	 * @param name
+	 * @param size
+	 * @param contentLease 
 	 */
-	public FileCheckItemClientImpl(final IFileItem item, final IFileContentManager fileContentMgr) {
+	public FileCheckItemClientImpl(final String name, final long size, final ContentLease contentLease) {
 		super();
-		this.item = item;
-		this.fileContentMgr = fileContentMgr;
+		this.name = name;
+		this.size = size;
+		this.contentLease = contentLease;
 	}
 
 	@Override
 	public String getName() {
-		return item.getName();
+		return name;
 	}
 
 	@Override
 	public void getContent(final OutputStream outputStream) throws CheckFileException {
 		try {
-			fileContentMgr.retrieveContent(item, item.getContent(), outputStream, null);
-		} catch (TeamRepositoryException e) {
+			contentLease.writeTo(outputStream);
+		} catch (AnalyzeException e) {
 			LOGGER.error(e.getMessage(), e);
 		}
 	}
 
+	/**
+	 * Only the prefix of the content is downloaded, unless another module
+	 * needs more of the content.
+	 */
+	@Override
+	public ByteBuffer getContentPrefix(final int maxBytes) throws CheckFileException {
+		try {
+			final ByteBuffer buffer = contentLease.getBuffer(maxBytes);
+			buffer.limit(buffer.position() + Math.min(maxBytes, buffer.remaining()));
+			return buffer;
+		} catch (AnalyzeException e) {
+			throw new CheckFileException(e.getMessage(), e);
+		}
+	}
+
 	@Override
 	public long getFileSize() {
-		return item.getContent().getSize();
+		return size;
 	}
 
 }
@@ -0,0 +1,33 @@
+package com.rus.jazz.tool.analyzescmcontent.analyze.pipeline;
+
+import java.util.List;
+
+import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
+import com.rus.jazz.tool.analyzescmcontent.analyze.ChangeSetAnalyzer;
+import com.rus.jazz.tool.analyzescmcontent.analyze.Result;
+
+/**
+ * Receives the rows at the end of the pipeline, in the order in which the
+ * change sets were discovered.
+ */
+public interface IRowSink {
+
+	/**
+	 * Write the rows of an analyzed change set.
+	 * 
+	 * @param analyzer
+	 *            the analyzed change set
+	 * @param rows
+	 *            the rows of the change set
+	 * @throws AnalyzeException
+	 */
+	void addRows(ChangeSetAnalyzer analyzer, List<Result> rows) throws AnalyzeException;
+
+	/**
+	 * Commit the rows written so far, called after the last change set of a
+	 * page.
+	 * 
+	 * @throws AnalyzeException
+	 */
+	void commit() throws AnalyzeException;
+}
@@ -0,0 +1,408 @@
+package com.rus.jazz.tool.analyzescmcontent.analyze.pipeline;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.ibm.team.scm.common.IChangeSetHandle;
+import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeParameter;
+import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
+import com.rus.jazz.tool.analyzescmcontent.analyze.ChangeSetAnalyzer;
+import com.rus.jazz.tool.analyzescmcontent.analyze.FileAnalyzer;
+import com.rus.jazz.tool.analyzescmcontent.analyze.Result;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ChangeSetDAO;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ComponentDAO;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.VersionableDAO;
+import com.rus.jazz.tool.analyzescmcontent.analyze.modules.ModuleManager;
+import com.rus.jazz.tool.analyzescmcontent.output.RunStatistics;
+
+/**
+ * Analyze the change sets of a component in explicit stages. The pages of
+ * change sets found by the discovery are passed through the stages
+ * <ul>
+ * <li>metadata: fetch the change sets, their authors and file states</li>
+ * <li>content: download the file contents, that the modules will read</li>
+ * <li>modules: execute the modules and create the rows</li>
+ * <li>output: write the rows in the order of the discovery</li>
+ * </ul>
+ * The stages are connected by bounded queues, so a slow stage holds up the
+ * previous ones. Each stage has its own number of workers, only the output is
+ * written by one worker. As the workers finish change sets out of order, the
+ * output keeps the early ones until their predecessors are written. To keep
+ * the memory of the pipeline limited, every change set takes a permit when it
+ * is submitted and returns it when it is written. Permits are taken in the
+ * order of the discovery, so the change set the output waits for always has
+ * one.
+ */
+public class Pipeline {
+
+	private static final Logger LOGGER = LogManager.getLogger(Pipeline.class.getName());
+
+	private static final String ENABLED = "Pipeline.Enabled";
+
+	private static final String QUEUE_CAPACITY = "Pipeline.QueueCapacity";
+
+	private static final String METADATA_WORKERS = "Pipeline.MetadataWorkers";
+
+	private static final String CONTENT_WORKERS = "Pipeline.ContentWorkers";
+
+	private static final String MODULE_WORKERS = "Pipeline.ModuleWorkers";
+
+	private static final int DEFAULT_QUEUE_CAPACITY = 64;
+
+	private static final long ACQUIRE_TIMEOUT_MILLIS = 100;
+
+	private transient final ComponentDAO componentDAO;
+
+	private transient final Result result;
+
+	private transient final IRowSink sink;
+
+	private transient final AtomicReference<AnalyzeException> failure = new AtomicReference<AnalyzeException>();
+
+	private transient final CountDownLatch done = new CountDownLatch(1);
+
+	/**
+	 * Limits the number of change sets in the pipeline.
+	 */
+	private transient final Semaphore inFlight;
+
+	private transient final int maxInFlight;
+
+	private transient final MetadataStage metadata;
+
+	private transient final ContentStage content;
+
+	private transient final ModuleStage modules;
+
+	private transient final OutputStage output;
+
+	private transient long pages;
+
+	private transient long changeSets;
+
+	private transient final long started;
+
+	/**
+	 * Constructor. The stages are started immediately.
+	 * 
+	 * @param componentDAO
+	 *            the component
+	 * @param result
+	 *            the results of the component
+	 * @param sink
+	 *            receives the rows
+	 */
+	public Pipeline(final ComponentDAO componentDAO, final Result result, final IRowSink sink) {
+		this.componentDAO = componentDAO;
+		this.result = result;
+		this.sink = sink;
+
+		final SCMAnalyzeParameter parameter = SCMAnalyzeParameter.getInstance();
+		final int capacity = parameter.getIntegerProperty(QUEUE_CAPACITY, DEFAULT_QUEUE_CAPACITY);
+		// a page of the batch size is fetched at once, it must fit
+		maxInFlight = Math.max(Math.max(1, capacity), componentDAO.getChangeSetBatchSize());
+		inFlight = new Semaphore(maxInFlight);
+		output = new OutputStage(capacity);
+		modules = new ModuleStage(parameter.getIntegerProperty(MODULE_WORKERS, 1), capacity);
+		content = new ContentStage(parameter.getIntegerProperty(CONTENT_WORKERS, 1), capacity);
+		metadata = new MetadataStage(parameter.getIntegerProperty(METADATA_WORKERS, 1), capacity);
+
+		started = System.currentTimeMillis();
+		output.start();
+		modules.start();
+		content.start();
+		metadata.start();
+	}
+
+	/**
+	 * Return, if the change sets are analyzed by a pipeline.
+	 * 
+	 * @return true, if the pipeline is enabled
+	 */
+	public static boolean isEnabled() {
+		return Boolean.parseBoolean(SCMAnalyzeParameter.getInstance().getConfiguration()
+				.getProperty(ENABLED, "false").trim());
+	}
+
+	/**
+	 * Pass a page of discovered change sets into the pipeline. Waits, while
+	 * the pipeline is full. Pages larger than the number of change sets in the
+	 * pipeline are split.
+	 * 
+	 * @param handles
+	 *            the change sets of the page
+	 * @throws AnalyzeException
+	 *             if the pipeline has failed
+	 */
+	public void submit(final List<IChangeSetHandle> handles) throws AnalyzeException {
+		checkFailure();
+		for (int start = 0; start < handles.size(); start += maxInFlight) {
+			final List<IChangeSetHandle> part = handles.subList(start, Math.min(handles.size(), start + maxInFlight));
+			acquire(part.size());
+			metadata.put(new Page(pages, part));
+			pages++;
+			changeSets += part.size();
+		}
+	}
+
+	private void acquire(final int permits) throws AnalyzeException {
+		try {
+			while (!inFlight.tryAcquire(permits, ACQUIRE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+				checkFailure();
+			}
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			throw new AnalyzeException("Interrupted while waiting for the pipeline", exception);
+		}
+	}
+
+	/**
+	 * Wait, until all submitted change sets are written, and publish the
+	 * metrics of the stages.
+	 * 
+	 * @throws AnalyzeException
+	 *             the first failure of a stage
+	 */
+	public void finish() throws AnalyzeException {
+		metadata.close();
+		try {
+			done.await();
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			fail(new AnalyzeException("Interrupted while waiting for the pipeline", exception));
+		}
+		publishMetrics();
+		checkFailure();
+	}
+
+	/**
+	 * Stop the pipeline because of a failure. Only the first failure is kept.
+	 * 
+	 * @param exception
+	 *            the failure
+	 */
+	public void fail(final AnalyzeException exception) {
+		if (failure.compareAndSet(null, exception)) {
+			LOGGER.error("Pipeline of component " + componentDAO.getHandle().getItemId().getUuidValue() + " failed",
+					exception);
+		}
+	}
+
+	/**
+	 * Return, if a stage has failed.
+	 * 
+	 * @return true, if the pipeline has failed
+	 */
+	boolean isFailed() {
+		return failure.get() != null;
+	}
+
+	private void checkFailure() throws AnalyzeException {
+		final AnalyzeException exception = failure.get();
+		if (exception != null) {
+			throw exception;
+		}
+	}
+
+	private void publishMetrics() {
+		final long seconds = Math.max(1, (System.currentTimeMillis() - started) / 1000);
+		LOGGER.info("Pipeline discovery: " + pages + " pages, " + changeSets + " change sets");
+		RunStatistics.getInstance().add("Pipeline discovery change sets", changeSets);
+
+		for (final PipelineStage<?> stage : new PipelineStage<?>[] { metadata, content, modules, output }) {
+			LOGGER.info("Pipeline " + stage.getName() + ": " + stage.getItems() + " items, "
+					+ stage.getItems() / seconds + " items/s, busy " + stage.getBusyMillis() + " ms, queue depth "
+					+ stage.getAverageQueueDepth() + " average, " + stage.getMaxQueueDepth() + " maximal");
+			RunStatistics.getInstance().add("Pipeline " + stage.getName() + " items", stage.getItems());
+			RunStatistics.getInstance().add("Pipeline " + stage.getName() + " busy ms", stage.getBusyMillis());
+		}
+	}
+
+	/**
+	 * A page of discovered change sets.
+	 */
+	private static class Page {
+
+		private transient final long number;
+
+		private transient final List<IChangeSetHandle> handles;
+
+		Page(final long number, final List<IChangeSetHandle> handles) {
+			this.number = number;
+			this.handles = handles;
+		}
+	}
+
+	/**
+	 * A change set on its way through the pipeline. A page without complete
+	 * change sets is passed as a single item without analyzer, so the output
+	 * still sees the end of the page.
+	 */
+	private static class ChangeSetItem {
+
+		private transient final long page;
+
+		private transient final int index;
+
+		private transient final int pageSize;
+
+		private transient final ChangeSetAnalyzer analyzer;
+
+		private transient List<Result> rows;
+
+		ChangeSetItem(final long page, final int index, final int pageSize, final ChangeSetAnalyzer analyzer) {
+			this.page = page;
+			this.index = index;
+			this.pageSize = pageSize;
+			this.analyzer = analyzer;
+		}
+
+		boolean isLastOfPage() {
+			return index >= pageSize - 1;
+		}
+	}
+
+	/**
+	 * Fetch the change sets of a page, their authors and their file states in
+	 * batches.
+	 */
+	private class MetadataStage extends PipelineStage<Page> {
+
+		MetadataStage(final int workers, final int capacity) {
+			super("metadata", workers, capacity, Pipeline.this);
+		}
+
+		@Override
+		protected void process(final Page page) throws AnalyzeException {
+			final List<ChangeSetAnalyzer> analyzers = componentDAO.createChangeSetAnalyzers(page.handles);
+			// incomplete change sets are not passed on, an empty page is
+			// passed as one item
+			inFlight.release(page.handles.size() - Math.max(1, analyzers.size()));
+			if (analyzers.isEmpty()) {
+				content.put(new ChangeSetItem(page.number, 0, 0, null));
+			}
+			for (int i = 0; i < analyzers.size(); i++) {
+				final ChangeSetAnalyzer analyzer = analyzers.get(i);
+				if (!ModuleManager.getInstance().getFileModules().isEmpty()) {
+					((ChangeSetDAO) analyzer.getDAO()).getFilesFromChangeSet();
+				}
+				content.put(new ChangeSetItem(page.number, i, analyzers.size(), analyzer));
+			}
+		}
+
+		@Override
+		protected void finished() {
+			content.close();
+		}
+	}
+
+	/**
+	 * Download the contents of the files of a change set, that the modules
+	 * will read. A failed download is left to the modules, which report the
+	 * error in their column.
+	 */
+	private class ContentStage extends PipelineStage<ChangeSetItem> {
+
+		ContentStage(final int workers, final int capacity) {
+			super("content", workers, capacity, Pipeline.this);
+		}
+
+		@Override
+		protected void process(final ChangeSetItem item) throws AnalyzeException {
+			if (item.analyzer != null && ModuleManager.getInstance().getRequiredContentLength() > 0) {
+				for (final FileAnalyzer file : ((ChangeSetDAO) item.analyzer.getDAO()).getFilesFromChangeSet()) {
+					try {
+						((VersionableDAO) file.getDAO()).prefetchContent();
+					} catch (AnalyzeException exception) {
+						LOGGER.warn("Content could not be fetched in advance", exception);
+					}
+				}
+			}
+			modules.put(item);
+		}
+
+		@Override
+		protected void finished() {
+			modules.close();
+		}
+	}
+
+	/**
+	 * Execute the modules on the change set and its files.
+	 */
+	private class ModuleStage extends PipelineStage<ChangeSetItem> {
+
+		ModuleStage(final int workers, final int capacity) {
+			super("modules", workers, capacity, Pipeline.this);
+		}
+
+		@Override
+		protected void process(final ChangeSetItem item) throws AnalyzeException {
+			if (item.analyzer != null) {
+				item.rows = item.analyzer.analyseRows(result);
+			}
+			output.put(item);
+		}
+
+		@Override
+		protected void finished() {
+			output.close();
+		}
+	}
+
+	/**
+	 * Write the rows in the order of the discovery. Items that arrive too
+	 * early are kept, until their predecessors are written. The rows are
+	 * committed at the end of every page.
+	 */
+	private class OutputStage extends PipelineStage<ChangeSetItem> {
+
+		private transient final Map<String, ChangeSetItem> waiting = new HashMap<String, ChangeSetItem>();
+
+		private transient long page;
+
+		private transient int index;
+
+		OutputStage(final int capacity) {
+			super("output", 1, capacity, Pipeline.this);
+		}
+
+		@Override
+		protected void process(final ChangeSetItem item) throws AnalyzeException {
+			waiting.put(item.page + ":" + item.index, item);
+
+			ChangeSetItem next = waiting.remove(page + ":" + index);
+			while (next != null) {
+				if (next.analyzer != null) {
+					sink.addRows(next.analyzer, next.rows);
+				}
+				inFlight.release();
+				if (next.isLastOfPage()) {
+					sink.commit();
+					page++;
+					index = 0;
+				} else {
+					index++;
+				}
+				next = waiting.remove(page + ":" + index);
+			}
+		}
+
+		@Override
+		protected void finished() {
+			if (!waiting.isEmpty() && !isFailed()) {
+				fail(new AnalyzeException(waiting.size() + " change sets were not written by the pipeline"));
+			}
+			done.countDown();
+		}
+	}
+
+}
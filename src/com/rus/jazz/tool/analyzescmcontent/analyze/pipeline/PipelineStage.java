@@ -0,0 +1,220 @@
+package com.rus.jazz.tool.analyzescmcontent.analyze.pipeline;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
+
+/**
+ * One stage of the analyze pipeline. The stage takes its items from a bounded
+ * queue and processes them with a fixed number of worker threads. If the queue
+ * is full, the previous stage waits, so the number of items in the pipeline is
+ * limited. When all workers of a stage are finished, the next stage is closed.
+ * 
+ * @param <I>
+ *            type of the items
+ */
+abstract class PipelineStage<I> {
+
+	private static final Object END = new Object();
+
+	private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+	private transient final String name;
+
+	private transient final int workers;
+
+	private transient final Pipeline pipeline;
+
+	private transient final BlockingQueue<Object> queue;
+
+	private transient final AtomicInteger running = new AtomicInteger();
+
+	private transient final AtomicLong items = new AtomicLong();
+
+	private transient final AtomicLong busyNanos = new AtomicLong();
+
+	private transient final AtomicLong puts = new AtomicLong();
+
+	private transient final AtomicLong depthSum = new AtomicLong();
+
+	private transient final AtomicInteger maxDepth = new AtomicInteger();
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param name
+	 *            name of the stage
+	 * @param workers
+	 *            number of worker threads
+	 * @param capacity
+	 *            capacity of the queue
+	 * @param pipeline
+	 *            the pipeline of the stage
+	 */
+	PipelineStage(final String name, final int workers, final int capacity, final Pipeline pipeline) {
+		this.name = name;
+		this.workers = Math.max(1, workers);
+		this.pipeline = pipeline;
+		queue = new ArrayBlockingQueue<Object>(Math.max(1, capacity));
+	}
+
+	/**
+	 * Process one item and pass the result to the next stage.
+	 * 
+	 * @param item
+	 *            the item
+	 * @throws AnalyzeException
+	 */
+	protected abstract void process(I item) throws AnalyzeException;
+
+	/**
+	 * Called, when all workers of the stage are finished.
+	 */
+	protected abstract void finished();
+
+	/**
+	 * Start the worker threads.
+	 */
+	void start() {
+		running.set(workers);
+		for (int i = 0; i < workers; i++) {
+			final Thread thread = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					work();
+				}
+			}, "pipeline-" + name + "-" + (i + 1));
+			thread.setDaemon(true);
+			thread.start();
+		}
+	}
+
+	/**
+	 * Add an item to the queue of the stage. Waits, while the queue is full.
+	 * If the pipeline fails meanwhile, the item is dropped.
+	 * 
+	 * @param item
+	 *            the item
+	 */
+	void put(final I item) {
+		offer(item);
+		final int depth = queue.size();
+		puts.incrementAndGet();
+		depthSum.addAndGet(depth);
+		int max = maxDepth.get();
+		while (depth > max && !maxDepth.compareAndSet(max, depth)) {
+			max = maxDepth.get();
+		}
+	}
+
+	/**
+	 * Close the stage after the last item. The workers end, when the queue is
+	 * empty.
+	 */
+	void close() {
+		for (int i = 0; i < workers; i++) {
+			offer(END);
+		}
+	}
+
+	private void offer(final Object item) {
+		try {
+			while (!queue.offer(item, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+				if (pipeline.isFailed() && (item != END || running.get() == 0)) {
+					// the item is not needed anymore
+					break;
+				}
+			}
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			pipeline.fail(new AnalyzeException("Pipeline stage " + name + " interrupted", exception));
+		}
+	}
+
+	private void work() {
+		try {
+			Object item = queue.take();
+			while (item != END) {
+				// after a failure the items are only drained, so that the
+				// previous stage is not blocked
+				if (!pipeline.isFailed()) {
+					processItem(item);
+				}
+				item = queue.take();
+			}
+		} catch (InterruptedException exception) {
+			Thread.currentThread().interrupt();
+			pipeline.fail(new AnalyzeException("Pipeline stage " + name + " interrupted", exception));
+		} finally {
+			if (running.decrementAndGet() == 0) {
+				finished();
+			}
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void processItem(final Object item) {
+		final long start = System.nanoTime();
+		try {
+			process((I) item);
+		} catch (AnalyzeException exception) {
+			pipeline.fail(exception);
+		} catch (RuntimeException exception) {
+			pipeline.fail(new AnalyzeException(exception.getMessage(), exception));
+		}
+		busyNanos.addAndGet(System.nanoTime() - start);
+		items.incrementAndGet();
+	}
+
+	/**
+	 * Return the name of the stage.
+	 * 
+	 * @return name
+	 */
+	String getName() {
+		return name;
+	}
+
+	/**
+	 * Return the number of processed items.
+	 * 
+	 * @return number of items
+	 */
+	long getItems() {
+		return items.get();
+	}
+
+	/**
+	 * Return the time, that the workers were busy with processing items.
+	 * 
+	 * @return busy time in milliseconds
+	 */
+	long getBusyMillis() {
+		return TimeUnit.NANOSECONDS.toMillis(busyNanos.get());
+	}
+
+	/**
+	 * Return the maximal number of items waiting in the queue.
+	 * 
+	 * @return maximal queue depth
+	 */
+	int getMaxQueueDepth() {
+		return maxDepth.get();
+	}
+
+	/**
+	 * Return the average number of items waiting in the queue, when an item
+	 * was added.
+	 * 
+	 * @return average queue depth
+	 */
+	long getAverageQueueDepth() {
+		final long number = puts.get();
+		return number == 0 ? 0 : depthSum.get() / number;
+	}
+
+}
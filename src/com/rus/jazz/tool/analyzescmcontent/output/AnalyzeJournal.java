@@ -0,0 +1,248 @@
+package com.rus.jazz.tool.analyzescmcontent.output;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.ibm.team.scm.common.IChangeSetHandle;
+import com.ibm.team.scm.common.IComponentHandle;
+import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
+
+/**
+ * Journal of a running analyze. The journal records the finished components
+ * and the finished change sets of the components in progress. The entries are
+ * written in batches, each closed by a commit line with the length of the csv
+ * file at this point. A batch is only written after the csv file was forced to
+ * disk, and the journal itself is forced after each batch. So after a crash the
+ * analyze can be resumed from the last commit, the rows behind it are cut off.
+ */
+public class AnalyzeJournal {
+
+	private static final Logger LOGGER = LogManager.getLogger(AnalyzeJournal.class.getName());
+
+	private static final Charset ASCII = Charset.forName("US-ASCII");
+
+	private static final char COMPONENT = 'C';
+
+	private static final char CHANGE_SET = 'S';
+
+	private static final char COMMIT = 'K';
+
+	private transient final File file;
+
+	private transient final Set<String> finishedComponents = new HashSet<String>();
+
+	private transient final Map<String, Set<String>> finishedChangeSets = new HashMap<String, Set<String>>();
+
+	private transient final List<String> pending = new ArrayList<String>();
+
+	private transient FileOutputStream stream;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param file
+	 *            the journal file
+	 */
+	public AnalyzeJournal(final File file) {
+		this.file = file;
+	}
+
+	/**
+	 * Read the journal of a previous run. An incomplete batch at the end of the
+	 * journal is discarded.
+	 * 
+	 * @return the length of the csv file at the last commit, -1 if there is no
+	 *         journal
+	 * @throws AnalyzeException
+	 */
+	public synchronized long resume() throws AnalyzeException {
+		long offset = -1;
+		if (file.exists()) {
+			int committedLength = 0;
+			try {
+				final String content = read();
+				final List<String> batch = new ArrayList<String>();
+				int start = 0;
+				int end = content.indexOf('\n');
+				while (end >= 0) {
+					final String line = content.substring(start, end);
+					if (line.length() > 2 && line.charAt(0) == COMMIT) {
+						offset = Long.parseLong(line.substring(2));
+						for (final String entry : batch) {
+							apply(entry);
+						}
+						batch.clear();
+						committedLength = end + 1;
+					} else {
+						batch.add(line);
+					}
+					start = end + 1;
+					end = content.indexOf('\n', start);
+				}
+
+				// cut off the incomplete batch and continue the journal
+				stream = new FileOutputStream(file, true);
+				stream.getChannel().truncate(committedLength);
+			} catch (IOException exception) {
+				throw new AnalyzeException("Error while reading the journal " + file, exception);
+			} catch (NumberFormatException exception) {
+				throw new AnalyzeException("The journal " + file + " is damaged", exception);
+			}
+
+			LOGGER.info("Resume after " + finishedComponents.size() + " finished components, csv file committed at "
+					+ offset + " bytes");
+		}
+		return offset;
+	}
+
+	private String read() throws IOException {
+		final byte[] content = new byte[(int) file.length()];
+		final InputStream input = new FileInputStream(file);
+		try {
+			int read = 0;
+			while (read < content.length) {
+				final int count = input.read(content, read, content.length - read);
+				if (count < 0) {
+					break;
+				}
+				read += count;
+			}
+			return new String(content, 0, read, ASCII);
+		} finally {
+			input.close();
+		}
+	}
+
+	private void apply(final String entry) {
+		final String[] ids = entry.substring(2).split(" ");
+		if (entry.charAt(0) == COMPONENT) {
+			finishedComponents.add(ids[0]);
+			finishedChangeSets.remove(ids[0]);
+		} else if (entry.charAt(0) == CHANGE_SET) {
+			Set<String> changeSets = finishedChangeSets.get(ids[0]);
+			if (changeSets == null) {
+				changeSets = new HashSet<String>();
+				finishedChangeSets.put(ids[0], changeSets);
+			}
+			changeSets.add(ids[1]);
+		}
+	}
+
+	/**
+	 * Start a new journal, a journal of a previous run is replaced.
+	 * 
+	 * @param offset
+	 *            the current length of the csv file
+	 * @throws AnalyzeException
+	 */
+	public synchronized void start(final long offset) throws AnalyzeException {
+		try {
+			stream = new FileOutputStream(file, false);
+		} catch (IOException exception) {
+			throw new AnalyzeException("Error while creating the journal " + file, exception);
+		}
+		commit(offset);
+	}
+
+	/**
+	 * Return, if the component was finished in the resumed run.
+	 * 
+	 * @param componentHandle
+	 *            the component
+	 * @return true, if the component is finished
+	 */
+	public synchronized boolean isFinished(final IComponentHandle componentHandle) {
+		return finishedComponents.contains(componentHandle.getItemId().getUuidValue());
+	}
+
+	/**
+	 * Return, if the change set was finished in the resumed run.
+	 * 
+	 * @param componentHandle
+	 *            the component of the change set
+	 * @param changeSetHandle
+	 *            the change set
+	 * @return true, if the change set is finished
+	 */
+	public synchronized boolean isFinished(final IComponentHandle componentHandle,
+			final IChangeSetHandle changeSetHandle) {
+		final Set<String> changeSets = finishedChangeSets.get(componentHandle.getItemId().getUuidValue());
+		return changeSets != null && changeSets.contains(changeSetHandle.getItemId().getUuidValue());
+	}
+
+	/**
+	 * Record a finished component with the next commit.
+	 * 
+	 * @param componentHandle
+	 *            the component
+	 */
+	public synchronized void finished(final IComponentHandle componentHandle) {
+		pending.add(COMPONENT + " " + componentHandle.getItemId().getUuidValue());
+	}
+
+	/**
+	 * Record a finished change set with the next commit.
+	 * 
+	 * @param componentHandle
+	 *            the component of the change set
+	 * @param changeSetHandle
+	 *            the change set
+	 */
+	public synchronized void finished(final IComponentHandle componentHandle,
+			final IChangeSetHandle changeSetHandle) {
+		pending.add(CHANGE_SET + " " + componentHandle.getItemId().getUuidValue() + " "
+				+ changeSetHandle.getItemId().getUuidValue());
+	}
+
+	/**
+	 * Write the recorded entries and force them to disk. The csv file has to
+	 * be forced to disk before.
+	 * 
+	 * @param offset
+	 *            the length of the csv file
+	 * @throws AnalyzeException
+	 */
+	public synchronized void commit(final long offset) throws AnalyzeException {
+		final StringBuilder batch = new StringBuilder();
+		for (final String entry : pending) {
+			batch.append(entry).append('\n');
+		}
+		batch.append(COMMIT).append(' ').append(offset).append('\n');
+
+		try {
+			stream.write(batch.toString().getBytes(ASCII));
+			stream.getFD().sync();
+		} catch (IOException exception) {
+			throw new AnalyzeException("Error while writing the journal " + file, exception);
+		}
+		pending.clear();
+	}
+
+	/**
+	 * Close and delete the journal after the analyze was finished completely.
+	 */
+	public synchronized void finish() {
+		try {
+			stream.close();
+		} catch (IOException exception) {
+			LOGGER.warn("Unable to close the journal " + file, exception);
+		}
+		if (!file.delete()) {
+			LOGGER.warn("Unable to delete the journal " + file);
+		}
+	}
+
+}
@@ -1,37 +1,94 @@
 package com.rus.jazz.tool.analyzescmcontent.output;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.PrintWriter;
+import java.util.Date;
 import java.util.List;
 
+import com.ibm.team.scm.common.IChangeSetHandle;
+import com.ibm.team.scm.common.IComponentHandle;
+import com.rus.jazz.tool.analyzescmcontent.IncrementalState;
 import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeParameter;
 import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
 import com.rus.jazz.tool.analyzescmcontent.analyze.Result;
 import com.rus.jazz.tool.analyzescmcontent.analyze.modules.ModuleManager;
 
 /**
- * This class is responsible for writing the results to a csv file.
+ * This class is responsible for writing the results to a csv file. The results
+ * can be added from several threads.
  */
 public class AnalyzeOutput {
 
 	private final transient PrintWriter csv;
 
+	private final transient FileOutputStream stream;
+
+	private final transient AnalyzeJournal journal;
+
 	/**
-	 * Constructor. Create a new file and write the header to this file.
+	 * Constructor. Create a new file and write the header to this file. In an
+	 * incremental run the results are appended to an existing file without
+	 * writing the header again, after the last row covered by the incremental
+	 * state. A resumed run continues the file after the last row committed to
+	 * the journal. Rows behind these points were written by an aborted run and
+	 * are cut off.
 	 * 
 	 * @throws AnalyzeException
+	 *             also if the run should be resumed, but there is no journal
 	 */
 	public AnalyzeOutput()
 			throws AnalyzeException {
 		try {
-			csv = new PrintWriter(SCMAnalyzeParameter.getInstance().getCSVFileName(), "UTF-8");
-			final List<String> order = ModuleManager.getInstance().getOrderedModuleList();
+			final File file = new File(SCMAnalyzeParameter.getInstance().getCSVFileName());
+			journal = new AnalyzeJournal(new File(file.getPath() + ".journal"));
+
+			final SCMAnalyzeParameter parameter = SCMAnalyzeParameter.getInstance();
+			long committed = -1;
+			if (parameter.isResume()) {
+				committed = journal.resume();
+				if (committed < 0) {
+					// the file is left untouched, it may be the result of a
+					// finished run
+					throw new AnalyzeException("The analyze cannot be resumed, there is no journal " + file.getPath()
+							+ ".journal of an aborted run");
+				}
+			} else if (parameter.isIncremental() && file.length() > 0) {
+				committed = IncrementalState.getInstance().getCSVLength();
+				if (committed < 0) {
+					// the state does not know the file, keep it as it is
+					committed = file.length();
+				}
+			}
+			final boolean resumed = parameter.isResume();
+
+			final boolean append = committed > 0;
+			stream = new FileOutputStream(file, append);
+			if (append) {
+				// cut off the rows written after the last commit
+				stream.getChannel().truncate(committed);
+			}
+			csv = new PrintWriter(new OutputStreamWriter(stream, "UTF-8"));
 
-			for (final String moduleName : order) {
-				csv.print(ModuleManager.getInstance().getModule(moduleName).getHeader());
-				csv.print(';');
+			if (!append) {
+				final List<String> order = ModuleManager.getInstance().getOrderedModuleList();
+
+				for (final String moduleName : order) {
+					csv.print(ModuleManager.getInstance().getModule(moduleName).getHeader());
+					csv.print(';');
+				}
+
+				csv.print('\n');
+			}
+			if (!resumed) {
+				final long offset = commitOutput();
+				journal.start(offset);
+				saveIncrementalState(offset);
 			}
-			
-			csv.print('\n');
+		} catch (AnalyzeException exception) {
+			throw exception;
 		} catch (Exception exception) { //NOPMD
 			throw new AnalyzeException("Error while creating the CSV output file ", exception);
 		}
@@ -44,13 +101,57 @@ public class AnalyzeOutput {
 		csv.close();
 	}
 
+	/**
+	 * Return the journal of the analyze.
+	 * 
+	 * @return journal
+	 */
+	public AnalyzeJournal getJournal() {
+		return journal;
+	}
+
+	/**
+	 * Force the written rows to disk and commit the entries recorded in the
+	 * journal since the last commit.
+	 * 
+	 * @throws AnalyzeException
+	 */
+	public synchronized void commit() throws AnalyzeException {
+		try {
+			final long offset = commitOutput();
+			journal.commit(offset);
+			saveIncrementalState(offset);
+		} catch (IOException exception) {
+			throw new AnalyzeException("Error while writing the CSV output file ", exception);
+		}
+	}
+
+	/**
+	 * Save the marks of the incremental state together with the committed
+	 * length of the csv file.
+	 */
+	private void saveIncrementalState(final long offset) throws AnalyzeException {
+		if (SCMAnalyzeParameter.getInstance().isIncremental()) {
+			IncrementalState.getInstance().save(offset);
+		}
+	}
+
+	private long commitOutput() throws IOException {
+		csv.flush();
+		if (csv.checkError()) {
+			throw new IOException("The CSV output file could not be written");
+		}
+		stream.getChannel().force(false);
+		return stream.getChannel().position();
+	}
+
 	/**
 	 * Add a new line to the result output file
 	 * 
 	 * @param result
 	 *            the result DAO
 	 */
-	public void addResult(final Result result) {
+	public synchronized void addResult(final Result result) {
 		final List<String> order = ModuleManager.getInstance().getOrderedModuleList();
 
 		for (final String moduleName : order) {
@@ -61,4 +162,50 @@ public class AnalyzeOutput {
 		csv.print('\n');
 	}
 
+	/**
+	 * Add the rows of a change set and record the change set as finished in
+	 * the journal. The rows of a change set are written together, so the rows
+	 * of components analyzed at the same time are not mixed within a change
+	 * set and a commit contains a change set completely or not at all. In an
+	 * incremental run the mark of the component is moved forward together with
+	 * the rows, so the next commit saves it.
+	 * 
+	 * @param componentHandle
+	 *            the component of the change set
+	 * @param changeSetHandle
+	 *            the change set
+	 * @param lastChangeDate
+	 *            modification time of the change set
+	 * @param rows
+	 *            the rows of the change set
+	 * @throws AnalyzeException
+	 */
+	public synchronized void addChangeSetResults(final IComponentHandle componentHandle,
+			final IChangeSetHandle changeSetHandle, final Date lastChangeDate, final List<Result> rows)
+			throws AnalyzeException {
+		for (final Result row : rows) {
+			addResult(row);
+		}
+		journal.finished(componentHandle, changeSetHandle);
+		if (SCMAnalyzeParameter.getInstance().isIncremental()) {
+			IncrementalState.getInstance().update(componentHandle, lastChangeDate);
+		}
+	}
+
+	/**
+	 * Add the remaining rows of a component and record the component as
+	 * finished in the journal.
+	 * 
+	 * @param componentHandle
+	 *            the component
+	 * @param rows
+	 *            the rows of the component, which are not part of a change set
+	 */
+	public synchronized void addComponentResults(final IComponentHandle componentHandle, final List<Result> rows) {
+		for (final Result row : rows) {
+			addResult(row);
+		}
+		journal.finished(componentHandle);
+	}
+
 }
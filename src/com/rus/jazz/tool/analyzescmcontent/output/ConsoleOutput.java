@@ -2,7 +2,8 @@ package com.rus.jazz.tool.analyzescmcontent.output;
 
 /**
  * Class for the console output. The output line on the command line can be
- * updated.
+ * updated. If several threads print messages, only the thread that printed the
+ * current line can update it, the updates of the other threads are skipped.
  */
 public final class ConsoleOutput { // NOPMD
 
@@ -26,6 +27,8 @@ public final class ConsoleOutput { // NOPMD
 
 	private static boolean firstLine = true;
 
+	private static Thread lineOwner;
+
 	private static final int MESSAGE_LENTH = 80;
 	private static final int STATE_LENTH = 15;
 	private static final int PROGRESS_LENGTH = 20;
@@ -136,12 +139,15 @@ public final class ConsoleOutput { // NOPMD
 				buildPercentageMessage(finishPercentage, totalPercentage), false);
 	}
 
-	private static void printMessage(final String message, final String process, final State state,
+	private static synchronized void printMessage(final String message, final String process, final State state,
 			final String percentage, final boolean newLine) {
-		print(buildMessage(message, newLine), MESSAGE_LENTH);
-		print((process == null) ? "" : process, PROGRESS_LENGTH);
-		print((state == null) ? "" : '[' + state.name() + ']', STATE_LENTH);
-		print((percentage == null) ? "" : percentage, PERCENTAGE_LENGTH);
+		if (newLine || lineOwner == null || lineOwner == Thread.currentThread()) {
+			lineOwner = Thread.currentThread();
+			print(buildMessage(message, newLine), MESSAGE_LENTH);
+			print((process == null) ? "" : process, PROGRESS_LENGTH);
+			print((state == null) ? "" : '[' + state.name() + ']', STATE_LENTH);
+			print((percentage == null) ? "" : percentage, PERCENTAGE_LENGTH);
+		}
 	}
 
 	private static String buildMessage(final String message, final boolean newLine) {
@@ -202,7 +208,7 @@ public final class ConsoleOutput { // NOPMD
 	 * 
 	 * @param exception
 	 */
-	public static void printException(Exception exception) {
+	public static synchronized void printException(Exception exception) {
 		System.out.print("\n");
 		exception.printStackTrace();
 	}
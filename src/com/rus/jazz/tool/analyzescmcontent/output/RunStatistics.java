@@ -0,0 +1,89 @@
+package com.rus.jazz.tool.analyzescmcontent.output;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Collects named counters during the analyze run. At the end of the run the
+ * counters are printed as summary on the console and in the log file. The
+ * counters can be updated from several threads.
+ */
+public final class RunStatistics {
+
+	private static final Logger LOGGER = LogManager.getLogger(RunStatistics.class.getName());
+
+	private static RunStatistics instance;
+
+	private transient final ConcurrentMap<String, AtomicLong> counters;
+
+	/**
+	 * Constructor.
+	 */
+	private RunStatistics() {
+		counters = new ConcurrentHashMap<String, AtomicLong>();
+	}
+
+	/**
+	 * Return the instance of the run statistics. The instance will be created
+	 * with the first call.
+	 * 
+	 * @return run statistics instance
+	 */
+	public static synchronized RunStatistics getInstance() {
+		if (instance == null) {
+			instance = new RunStatistics();
+		}
+		return instance;
+	}
+
+	/**
+	 * Add a value to a counter. If the counter not exists it will be created.
+	 * 
+	 * @param name
+	 *            name of the counter
+	 * @param value
+	 *            value to add
+	 */
+	public void add(final String name, final long value) {
+		AtomicLong counter = counters.get(name);
+		if (counter == null) {
+			final AtomicLong newCounter = new AtomicLong();
+			counter = counters.putIfAbsent(name, newCounter);
+			if (counter == null) {
+				counter = newCounter;
+			}
+		}
+		counter.addAndGet(value);
+	}
+
+	/**
+	 * Return the current value of a counter.
+	 * 
+	 * @param name
+	 *            name of the counter
+	 * @return value of the counter or 0 if the counter not exists
+	 */
+	public long get(final String name) {
+		final AtomicLong counter = counters.get(name);
+		return counter == null ? 0 : counter.get();
+	}
+
+	/**
+	 * Print all counters sorted by name to the console and the log file.
+	 */
+	public void printSummary() {
+		final Map<String, AtomicLong> sorted = new TreeMap<String, AtomicLong>(counters);
+		for (final Map.Entry<String, AtomicLong> entry : sorted.entrySet()) {
+			final String message = entry.getKey() + ": " + entry.getValue().get();
+			LOGGER.info(message);
+			ConsoleOutput.printMessage(message);
+		}
+	}
+
+}
@@ -1,44 +1,18 @@
 package com.rus.jazz.tool.preventbinarydeliver.whitelist;
 
 import java.io.OutputStream;
-import java.util.Set;
-import java.util.TreeSet;
+import java.nio.ByteBuffer;
 
 /**
  * Super class for the representation of an RTC file under source control.
  */
 public abstract class AbstractFile {
 
-	/**
-	 * The list of white lists in which the file was already searched.
-	 */
-	private final transient Set<String> alreadySearchedIn;
-
 	/**
 	 * Constructor
 	 */
 	public AbstractFile() {
 		super();
-		alreadySearchedIn = new TreeSet<String>();
-	}
-
-	/**
-	 * Checks, if the file was already searched in the reference.
-	 * 
-	 * @param reference
-	 * @return true if this reference was already searched, otherwiese false
-	 */
-	public boolean alreadySerachedIn(final String reference) {
-		return alreadySearchedIn.contains(reference);
-	}
-
-	/**
-	 * Add a new reference that was already searched.
-	 * 
-	 * @param reference
-	 */
-	public void addReference(final String reference) {
-		alreadySearchedIn.add(reference);
 	}
 
 	/**
@@ -58,10 +32,74 @@ public abstract class AbstractFile {
 	public abstract void getContent(final OutputStream outputStream)
 			throws CheckFileException;
 
+	/**
+	 * Returns the first bytes of the content of the file. Checkers that look
+	 * only at the beginning of a file should use this method.
+	 * <p>
+	 * This default implementation transfers the complete content with
+	 * getContent and only keeps the prefix in memory, so it saves memory but
+	 * no transfer. An implementation, whose transfer can be stopped after the
+	 * prefix arrived, has to override this method to read less, like the
+	 * FileCheckItemClientImpl of the SCM analyze with its content lease.
+	 * Implementations that only provide getContent read every file
+	 * completely, also for the NonBinaryChecker.
+	 * 
+	 * @param maxBytes
+	 *            maximal number of bytes
+	 * @return buffer with the first bytes of the content, shorter if the
+	 *         content is smaller
+	 * @throws CheckFileException
+	 */
+	public ByteBuffer getContentPrefix(final int maxBytes)
+			throws CheckFileException {
+		final long fileSize = getFileSize();
+		final PrefixOutputStream prefix = new PrefixOutputStream(
+				fileSize > 0 ? (int) Math.min(maxBytes, fileSize) : maxBytes);
+		getContent(prefix);
+		return prefix.getBuffer();
+	}
+
 	/**
 	 * Returns the file size of the file under version control.
 	 * 
 	 * @return the length in byte of the file
 	 */
 	public abstract long getFileSize();
+
+	/**
+	 * Output stream, that keeps the first bytes written to it and discards
+	 * the rest.
+	 */
+	private static class PrefixOutputStream extends OutputStream {
+
+		private final transient byte[] prefix;
+
+		private transient int size;
+
+		PrefixOutputStream(final int maxBytes) {
+			super();
+			prefix = new byte[maxBytes];
+		}
+
+		@Override
+		public void write(final int value) {
+			if (size < prefix.length) {
+				prefix[size++] = (byte) value;
+			}
+		}
+
+		@Override
+		public void write(final byte[] buffer, final int offset,
+				final int length) {
+			final int copied = Math.min(length, prefix.length - size);
+			if (copied > 0) {
+				System.arraycopy(buffer, offset, prefix, size, copied);
+				size += copied;
+			}
+		}
+
+		ByteBuffer getBuffer() {
+			return ByteBuffer.wrap(prefix, 0, size);
+		}
+	}
 }
\ No newline at end of file
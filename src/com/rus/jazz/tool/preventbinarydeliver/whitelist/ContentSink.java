@@ -0,0 +1,216 @@
+package com.rus.jazz.tool.preventbinarydeliver.whitelist;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+
+/**
+ * Output stream for the content of a file. The content is kept in memory
+ * until it reaches the threshold, larger content is spilled to a temporary
+ * file. The content can be read back through a read-only byte buffer, which is
+ * memory mapped for spilled content. So the content is never copied
+ * completely into the heap.
+ */
+public class ContentSink extends OutputStream {
+
+	/**
+	 * Default number of bytes, that are kept in memory.
+	 */
+	public static final int DEFAULT_THRESHOLD = 16 * 1024 * 1024;
+
+	/**
+	 * Initial size of the memory buffer.
+	 */
+	private static final int INITIAL_SIZE = 8192;
+
+	/**
+	 * Number of bytes that are kept in memory.
+	 */
+	private final transient int threshold;
+
+	/**
+	 * The memory buffer, null if the content was spilled.
+	 */
+	private transient byte[] bytes;
+
+	/**
+	 * The temporary file, null if the content is in memory.
+	 */
+	private transient File spool;
+
+	/**
+	 * Output stream of the temporary file.
+	 */
+	private transient OutputStream spoolStream;
+
+	/**
+	 * Number of written bytes.
+	 */
+	private transient long size;
+
+	/**
+	 * Constructor.
+	 * 
+	 * @param threshold
+	 *            number of bytes, that are kept in memory
+	 */
+	public ContentSink(final int threshold) {
+		super();
+		this.threshold = threshold;
+		bytes = new byte[Math.max(0, Math.min(threshold, INITIAL_SIZE))];
+	}
+
+	@Override
+	public void write(final int value) throws IOException {
+		write(new byte[] { (byte) value }, 0, 1);
+	}
+
+	@Override
+	public void write(final byte[] buffer, final int offset, final int length)
+			throws IOException {
+		if (spool == null && size + length > threshold) {
+			spill();
+		}
+
+		if (spool == null) {
+			if (size + length > bytes.length) {
+				final long grown = Math.max(size + length, bytes.length * 2L);
+				bytes = Arrays.copyOf(bytes, (int) Math.min(grown, threshold));
+			}
+			System.arraycopy(buffer, offset, bytes, (int) size, length);
+		} else {
+			spoolStream.write(buffer, offset, length);
+		}
+		size += length;
+	}
+
+	/**
+	 * Move the content from the memory to the temporary file.
+	 * 
+	 * @throws IOException
+	 */
+	private void spill() throws IOException {
+		spool = File.createTempFile("content", ".spool");
+		spoolStream = new BufferedOutputStream(new FileOutputStream(spool));
+		spoolStream.write(bytes, 0, (int) size);
+		bytes = null;
+	}
+
+	@Override
+	public void flush() throws IOException {
+		if (spoolStream != null) {
+			spoolStream.flush();
+		}
+	}
+
+	/**
+	 * Finish the writing. The content stays available until
+	 * {@link #release()} is called.
+	 */
+	@Override
+	public void close() throws IOException {
+		if (spoolStream != null) {
+			spoolStream.close();
+			spoolStream = null;
+		}
+	}
+
+	/**
+	 * Returns the number of written bytes.
+	 * 
+	 * @return size of the content
+	 */
+	public long size() {
+		return size;
+	}
+
+	/**
+	 * Returns true, if the content was spilled to a temporary file.
+	 * 
+	 * @return true, if the content is not in memory
+	 */
+	public boolean isSpilled() {
+		return spool != null;
+	}
+
+	/**
+	 * Returns a read-only view of the content. Spilled content is mapped into
+	 * memory.
+	 * 
+	 * @return read-only buffer with the content
+	 * @throws IOException
+	 *             also if the content is larger than 2 GB, it does not fit
+	 *             into one buffer
+	 */
+	public ByteBuffer getBuffer() throws IOException {
+		ByteBuffer result;
+
+		if (spool == null) {
+			result = ByteBuffer.wrap(bytes, 0, (int) size).asReadOnlyBuffer();
+		} else if (size > Integer.MAX_VALUE) {
+			throw new IOException("Content of " + size
+					+ " bytes is too large for one buffer");
+		} else {
+			close();
+			final RandomAccessFile file = new RandomAccessFile(spool, "r");
+			try {
+				// the mapping stays valid after closing the channel
+				result = file.getChannel().map(FileChannel.MapMode.READ_ONLY,
+						0, size);
+			} finally {
+				file.close();
+			}
+		}
+
+		return result;
+	}
+
+	/**
+	 * Write the complete content to an output stream.
+	 * 
+	 * @param outputStream
+	 * @throws IOException
+	 */
+	public void writeTo(final OutputStream outputStream) throws IOException {
+		if (spool == null) {
+			outputStream.write(bytes, 0, (int) size);
+		} else {
+			close();
+			final RandomAccessFile file = new RandomAccessFile(spool, "r");
+			try {
+				final byte[] buffer = new byte[INITIAL_SIZE];
+				int read = file.read(buffer);
+				while (read >= 0) {
+					outputStream.write(buffer, 0, read);
+					read = file.read(buffer);
+				}
+			} finally {
+				file.close();
+			}
+		}
+	}
+
+	/**
+	 * Release the memory and delete the temporary file. If the file is still
+	 * mapped, it will be deleted when the program exits.
+	 */
+	public void release() {
+		try {
+			close();
+		} catch (IOException e) { // NOPMD
+			// nothing to do, the file is deleted anyway
+		}
+		if (spool != null && !spool.delete()) {
+			spool.deleteOnExit();
+		}
+		spool = null;
+		bytes = null;
+	}
+
+}
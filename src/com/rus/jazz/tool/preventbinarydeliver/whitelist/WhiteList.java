@@ -1,9 +1,13 @@
 package com.rus.jazz.tool.preventbinarydeliver.whitelist;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import com.rus.jazz.tool.preventbinarydeliver.whitelist.checker.IFileChecker;
+import com.rus.jazz.tool.preventbinarydeliver.whitelist.checker.IFileChecker.Cost;
 
 /**
  * The WhiteList class. It contains a number of user ordered IFileChecker.
@@ -15,6 +19,19 @@ public class WhiteList {
 	 */
 	private transient final List<IFileChecker> fileCheckerList;
 
+	/**
+	 * The checkers, that are executed by isPermitted. The references are
+	 * resolved and the file extensions are merged into one checker, null if
+	 * the white list is not compiled.
+	 */
+	private transient IFileChecker[] compiledCheckers;
+
+	/**
+	 * For each compiled checker, that reads the content, the number of files
+	 * that were allowed by a cheaper checker before.
+	 */
+	private transient AtomicLongArray skippedContentChecks;
+
 	/**
 	 * Constructor.
 	 */
@@ -41,26 +58,101 @@ public class WhiteList {
 		return fileCheckerList;
 	}
 
+	/**
+	 * Set the compiled checkers, that replace the user ordered checkers in
+	 * isPermitted. The compiled checkers must not contain references and
+	 * should be ordered by their cost. The list of user ordered checkers is not
+	 * changed.
+	 * 
+	 * @param checkers
+	 *            compiled checkers, they are copied
+	 */
+	public void setCompiledCheckers(final IFileChecker[] checkers) {
+		compiledCheckers = checkers.clone();
+		skippedContentChecks = new AtomicLongArray(checkers.length);
+	}
+
+	/**
+	 * Return for each compiled checker that reads the content, how often it
+	 * was not executed, because a cheaper checker allowed the file.
+	 * 
+	 * @return number of skipped checks for each content checker
+	 */
+	public Map<IFileChecker, Long> getSkippedContentChecks() {
+		final Map<IFileChecker, Long> result = new LinkedHashMap<IFileChecker, Long>();
+		if (compiledCheckers != null) {
+			for (int i = 0; i < compiledCheckers.length; i++) {
+				if (compiledCheckers[i].getCost() == Cost.CONTENT) {
+					result.put(compiledCheckers[i],
+							Long.valueOf(skippedContentChecks.get(i)));
+				}
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Checks if a file type matches one of the file extensions in the white
-	 * list.
+	 * list. The compiled checkers are executed in their order, cheapest first.
+	 * The user ordered checkers are never executed, their references may be
+	 * cyclic.
 	 * 
 	 * @param file
 	 * 
 	 * @return true, if the file is permitted, otherwise false.
 	 * @throws CheckFileException
+	 *             if the white list is not compiled
 	 */
 	public boolean isPermitted(final AbstractFile file)
 			throws CheckFileException {
+		if (compiledCheckers == null) {
+			throw new CheckFileException(
+					"The white list is not compiled, its references are "
+							+ "not resolved");
+		}
+
 		boolean result = false;
 		if (file != null) {
-			for (final IFileChecker fileChecker : fileCheckerList) {
-				if (fileChecker.checkFile(file)) {
-					result = true;
-					break;
+			int index = 0;
+			while (index < compiledCheckers.length && !result) {
+				result = compiledCheckers[index].checkFile(file);
+				index++;
+			}
+			if (result) {
+				countSkippedContentChecks(index);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Checks if the file is allowed by one of the compiled checkers, that do
+	 * not read the content.
+	 * 
+	 * @param file
+	 * 
+	 * @return true, if the file is permitted without reading the content,
+	 *         otherwise false.
+	 * @throws CheckFileException
+	 */
+	public boolean isPermittedWithoutContent(final AbstractFile file)
+			throws CheckFileException {
+		boolean result = false;
+		if (file != null && compiledCheckers != null) {
+			for (int i = 0; i < compiledCheckers.length && !result; i++) {
+				if (compiledCheckers[i].getCost() != Cost.CONTENT) {
+					result = compiledCheckers[i].checkFile(file);
 				}
 			}
 		}
 		return result;
 	}
+
+	private void countSkippedContentChecks(final int from) {
+		for (int i = from; i < compiledCheckers.length; i++) {
+			if (compiledCheckers[i].getCost() == Cost.CONTENT) {
+				skippedContentChecks.incrementAndGet(i);
+			}
+		}
+	}
 }
@@ -2,12 +2,15 @@ package com.rus.jazz.tool.preventbinarydeliver.whitelist;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
 import com.rus.jazz.tool.preventbinarydeliver.whitelist.builder.WhiteListConfigurationBuilder;
 import com.rus.jazz.tool.preventbinarydeliver.whitelist.builder.WhiteListConfigurationBuilderEvents;
 import com.rus.jazz.tool.preventbinarydeliver.whitelist.checker.IFileChecker;
+import com.rus.jazz.tool.preventbinarydeliver.whitelist.checker.IFileChecker.Cost;
+import com.rus.jazz.tool.preventbinarydeliver.whitelist.checker.NonBinaryChecker;
 import com.rus.jazz.tool.preventbinarydeliver.whitelist.checker.Reference;
 
 /**
@@ -66,6 +69,23 @@ public class WhiteListConfiguration {
 		return whiteList.isPermitted(file);
 	}
 
+	/**
+	 * Verify, if the file satisfy the permitted pattern without reading its
+	 * content.
+	 * 
+	 * @param file
+	 * @param projectAreaName
+	 * 
+	 * @return true if the file is permitted without the content, otherwise
+	 *         false
+	 * @throws CheckFileException
+	 */
+	public boolean isPermittedWithoutContent(final AbstractFile file,
+			final String projectAreaName) throws CheckFileException {
+		return getWhitelistForKey(projectAreaName).isPermittedWithoutContent(
+				file);
+	}
+
 	/**
 	 * Returns the white list for a project area
 	 * 
@@ -156,6 +176,49 @@ public class WhiteListConfiguration {
 		return result;
 	}
 
+	/**
+	 * Return the number of content bytes, that the checkers of all white lists
+	 * read at most. A NonBinaryChecker reads only the first bytes, other
+	 * checkers that read the content may read the complete content.
+	 * 
+	 * @return number of bytes, 0 if the content is not read and
+	 *         Integer.MAX_VALUE for the complete content
+	 */
+	public int getRequiredContentLength() {
+		int result = 0;
+		for (final WhiteList whiteList : whiteListMap.values()) {
+			for (final IFileChecker checker : whiteList.getFileCheckerList()) {
+				if (checker instanceof NonBinaryChecker) {
+					result = Math.max(result,
+							((NonBinaryChecker) checker).getNumberBytes());
+				} else if (checker.getCost() == Cost.CONTENT
+						&& !(checker instanceof Reference)) {
+					result = Integer.MAX_VALUE;
+				}
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Return for each checker that reads the content, how often it was not
+	 * executed, because a cheaper checker allowed the file. The keys contain
+	 * the name of the white list and the pattern of the checker.
+	 * 
+	 * @return number of skipped checks for each content checker
+	 */
+	public Map<String, Long> getSkippedContentChecks() {
+		final Map<String, Long> result = new LinkedHashMap<String, Long>();
+		for (final Map.Entry<String, WhiteList> entry : whiteListMap.entrySet()) {
+			for (final Map.Entry<IFileChecker, Long> skipped : entry.getValue()
+					.getSkippedContentChecks().entrySet()) {
+				result.put(entry.getKey() + " " + skipped.getKey().getPattern(),
+						skipped.getValue());
+			}
+		}
+		return result;
+	}
+
 	/**
 	 * Remove leading and anding spaces and change the string to lower case.
 	 * 
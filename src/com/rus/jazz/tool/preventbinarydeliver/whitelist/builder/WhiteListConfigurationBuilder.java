@@ -4,6 +4,11 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
@@ -13,9 +18,12 @@ import com.rus.jazz.tool.preventbinarydeliver.whitelist.ConfigurationException;
 import com.rus.jazz.tool.preventbinarydeliver.whitelist.WhiteList;
 import com.rus.jazz.tool.preventbinarydeliver.whitelist.WhiteListConfiguration;
 import com.rus.jazz.tool.preventbinarydeliver.whitelist.builder.WhiteListConfigurationBuilderEvents.Severity;
+import com.rus.jazz.tool.preventbinarydeliver.whitelist.checker.CompiledExtensionChecker;
 import com.rus.jazz.tool.preventbinarydeliver.whitelist.checker.FileCheckerFactory;
 import com.rus.jazz.tool.preventbinarydeliver.whitelist.checker.IFileChecker;
+import com.rus.jazz.tool.preventbinarydeliver.whitelist.checker.NumberedFileExtension;
 import com.rus.jazz.tool.preventbinarydeliver.whitelist.checker.Reference;
+import com.rus.jazz.tool.preventbinarydeliver.whitelist.checker.SimpleFileExtension;
 
 /**
  * Load the configuration from a property file and return a
@@ -23,6 +31,23 @@ import com.rus.jazz.tool.preventbinarydeliver.whitelist.checker.Reference;
  */
 public class WhiteListConfigurationBuilder {
 
+	/**
+	 * Orders the checkers by their cost, cheapest first. Checkers with the same
+	 * cost keep the user defined order.
+	 */
+	private static final Comparator<IFileChecker> COST_ORDER = new Comparator<IFileChecker>() {
+		@Override
+		public int compare(final IFileChecker first, final IFileChecker second) {
+			return first.getCost().compareTo(second.getCost());
+		}
+	};
+
+	/**
+	 * Pattern of the reference to the global list, that is added to every
+	 * other white list.
+	 */
+	private static final String GLOBAL_REFERENCE = "<$global>";
+
 	/**
 	 * Name of the property file that contains the configuration.
 	 */
@@ -92,6 +117,8 @@ public class WhiteListConfigurationBuilder {
 				whiteListMap.put(referenceKey, whiteList);
 			}
 
+			compileWhiteLists(whiteListMap, events);
+
 		} catch (final FileNotFoundException e) {
 			throw new ConfigurationException(
 					"Error by reading the config file", e);
@@ -126,7 +153,7 @@ public class WhiteListConfigurationBuilder {
 		 * is a reference to the global list
 		 */
 		if (!referenceKey.equals(WhiteListConfiguration.GLOBAL_KEY)) {
-			whiteList.addChecker(new Reference("<$global>", 
+			whiteList.addChecker(new Reference(GLOBAL_REFERENCE,
 					WhiteListConfiguration.GLOBAL_KEY, whiteListMap));
 			events.add(Severity.INFO, "Key "
 					+ WhiteListConfiguration.GLOBAL_KEY
@@ -169,6 +196,128 @@ public class WhiteListConfigurationBuilder {
 		return whiteList;
 	}
 
+	/**
+	 * Compile the checkers of all white lists into flat arrays. The references
+	 * are resolved depth first in the user defined order, every white list is
+	 * searched only once and doubled checkers are removed. The
+	 * SimpleFileExtension and NumberedFileExtension checkers are merged into
+	 * one CompiledExtensionChecker, that is executed first. The other checkers
+	 * are ordered by their cost, so the content is only read, if no cheaper
+	 * checker allows the file. Cyclic references are ignored, each cycle is
+	 * reported once as warning. The reference of a white list to the global
+	 * list is no cycle, even if the global list references the white list.
+	 * 
+	 * @param whiteListMap
+	 * @param events
+	 */
+	private void compileWhiteLists(final Map<String, WhiteList> whiteListMap,
+			final WhiteListConfigurationBuilderEvents events) {
+		final Set<List<String>> cycles = new HashSet<List<String>>();
+		for (final Map.Entry<String, WhiteList> entry : whiteListMap
+				.entrySet()) {
+			final CompiledExtensionChecker extensions = new CompiledExtensionChecker();
+			final List<IFileChecker> checkers = new ArrayList<IFileChecker>();
+			flatten(entry.getKey(), whiteListMap, extensions, checkers,
+					new TreeSet<String>(), new ArrayList<String>(),
+					new TreeSet<String>(), cycles, events);
+
+			if (!extensions.isEmpty()) {
+				checkers.add(0, extensions);
+			}
+			Collections.sort(checkers, COST_ORDER);
+			entry.getValue().setCompiledCheckers(
+					checkers.toArray(new IFileChecker[checkers.size()]));
+			events.add(Severity.INFO, "WhiteList " + entry.getKey()
+					+ " compiled with " + extensions.size()
+					+ " file extensions and " + checkers.size() + " checkers");
+		}
+	}
+
+	/**
+	 * Add the checkers of a white list and of the referenced white lists to
+	 * the compiled checkers.
+	 * 
+	 * @param key
+	 *            key of the white list
+	 * @param whiteListMap
+	 * @param extensions
+	 *            receives the file extensions
+	 * @param checkers
+	 *            receives the other checkers
+	 * @param searched
+	 *            keys of the white lists, that are already searched
+	 * @param path
+	 *            keys of the white lists, that lead to this white list
+	 * @param added
+	 *            names and patterns of the added checkers
+	 * @param cycles
+	 *            the already reported cycles
+	 * @param events
+	 */
+	private void flatten(final String key,
+			final Map<String, WhiteList> whiteListMap,
+			final CompiledExtensionChecker extensions,
+			final List<IFileChecker> checkers, final Set<String> searched,
+			final List<String> path, final Set<String> added,
+			final Set<List<String>> cycles,
+			final WhiteListConfigurationBuilderEvents events) {
+		searched.add(key);
+		path.add(key);
+		for (final IFileChecker checker : whiteListMap.get(key)
+				.getFileCheckerList()) {
+			if (checker instanceof Reference) {
+				final String referenceName = ((Reference) checker)
+						.getReferenceName();
+				// the implicit reference to the global list closes no cycle,
+				// the global list is searched on a path of its own
+				final boolean global = GLOBAL_REFERENCE.equals(checker
+						.getPattern());
+				if (!global && path.contains(referenceName)) {
+					reportCycle(path.subList(path.indexOf(referenceName),
+							path.size()), cycles, events);
+				} else if (!searched.contains(referenceName)
+						&& whiteListMap.containsKey(referenceName)) {
+					flatten(referenceName, whiteListMap, extensions, checkers,
+							searched, global ? new ArrayList<String>() : path,
+							added, cycles, events);
+				}
+			} else if (added.add(checker.getName() + checker.getPattern())) {
+				if (checker instanceof SimpleFileExtension) {
+					extensions.add((SimpleFileExtension) checker);
+				} else if (checker instanceof NumberedFileExtension) {
+					extensions.add((NumberedFileExtension) checker);
+				} else {
+					checkers.add(checker);
+				}
+			}
+		}
+		path.remove(path.size() - 1);
+	}
+
+	/**
+	 * Report a cycle of references, if it was not reported before. The same
+	 * cycle is reached from every white list, that references one of its
+	 * white lists, and may start at each of them.
+	 * 
+	 * @param cycle
+	 *            keys of the white lists of the cycle
+	 * @param cycles
+	 *            the already reported cycles
+	 * @param events
+	 */
+	private void reportCycle(final List<String> cycle,
+			final Set<List<String>> cycles,
+			final WhiteListConfigurationBuilderEvents events) {
+		// start the cycle at its smallest key to recognize it again
+		final List<String> normalized = new ArrayList<String>(cycle);
+		Collections.rotate(normalized,
+				-normalized.indexOf(Collections.min(normalized)));
+		if (cycles.add(normalized)) {
+			events.add(Severity.WARNING, "Cyclic reference " + normalized
+					+ " -> " + normalized.get(0) + " ignored");
+		}
+	}
+
 	/**
 	 * Returns (and normalize) all references containing in the configuration
 	 * file.
@@ -0,0 +1,178 @@
+package com.rus.jazz.tool.preventbinarydeliver.whitelist.checker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.rus.jazz.tool.preventbinarydeliver.whitelist.AbstractFile;
+import com.rus.jazz.tool.preventbinarydeliver.whitelist.WhiteListConfiguration;
+
+/**
+ * This implementation of the IFileChecker merges the SimpleFileExtension and
+ * NumberedFileExtension checkers of a white list into one trie of the reversed
+ * file endings. The file name is normalized once and read backwards only once,
+ * independent of the number of file endings in the white list. The checker is
+ * created by the WhiteListConfigurationBuilder, it is not configured directly.
+ */
+public class CompiledExtensionChecker implements IFileChecker {
+
+	/**
+	 * The root of the trie, it stands for the end of the file name.
+	 */
+	private final transient Node root;
+
+	/**
+	 * The patterns of the merged checkers.
+	 */
+	private final transient List<String> patterns;
+
+	/**
+	 * Constructor. Creates an empty checker, that permits no file.
+	 */
+	public CompiledExtensionChecker() {
+		root = new Node();
+		patterns = new ArrayList<String>();
+	}
+
+	/**
+	 * Add the file ending of a SimpleFileExtension.
+	 * 
+	 * @param checker
+	 *            the checker
+	 */
+	public void add(final SimpleFileExtension checker) {
+		insert(root, checker.getPattern()).terminal = true;
+		patterns.add(checker.getPattern());
+	}
+
+	/**
+	 * Add the file ending of a NumberedFileExtension. The part after the
+	 * numeric pattern leads to a node, where the digits are skipped, the part
+	 * before the numeric pattern continues from there.
+	 * 
+	 * @param checker
+	 *            the checker
+	 */
+	public void add(final NumberedFileExtension checker) {
+		final Node after = insert(root, checker.getFileEndingAfter());
+		if (after.digits == null) {
+			after.digits = new Node();
+		}
+		insert(after.digits, checker.getFileEndingBefore()).terminal = true;
+		patterns.add(checker.getPattern());
+	}
+
+	private static Node insert(final Node start, final String ending) {
+		Node node = start;
+		for (int i = ending.length() - 1; i >= 0; i--) {
+			final Character sign = Character.valueOf(ending.charAt(i));
+			Node child = node.children.get(sign);
+			if (child == null) {
+				child = new Node();
+				node.children.put(sign, child);
+			}
+			node = child;
+		}
+		return node;
+	}
+
+	/**
+	 * Return, if no file ending was added.
+	 * 
+	 * @return true, if the checker is empty
+	 */
+	public boolean isEmpty() {
+		return patterns.isEmpty();
+	}
+
+	/**
+	 * Return the number of merged file endings.
+	 * 
+	 * @return number of file endings
+	 */
+	public int size() {
+		return patterns.size();
+	}
+
+	@Override
+	public boolean checkFile(final AbstractFile file) {
+		final String fileName = WhiteListConfiguration
+				.normalize(file.getName());
+		return fileName != null
+				&& matches(root, fileName, fileName.length());
+	}
+
+	/**
+	 * Walk the trie backwards from the end of the file name. A node with
+	 * digits branches into the trie of the endings before the numeric part.
+	 */
+	private static boolean matches(final Node start, final String fileName,
+			final int end) {
+		boolean result = false;
+		Node node = start;
+		int index = end;
+		while (node != null && !result) {
+			if (node.terminal) {
+				result = true;
+			} else {
+				if (node.digits != null) {
+					result = matches(node.digits, fileName,
+							skipDigits(fileName, index));
+				}
+				node = index > 0 ? node.children.get(Character
+						.valueOf(fileName.charAt(--index))) : null;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * Skip the digits before the end, like the NumberedFileExtension does. The
+	 * first sign of the file name is never skipped.
+	 */
+	private static int skipDigits(final String fileName, final int end) {
+		int last = end - 1;
+		while (last > 0 && fileName.charAt(last) >= '0'
+				&& fileName.charAt(last) <= '9') {
+			last--;
+		}
+		return last + 1;
+	}
+
+	@Override
+	public String toString() {
+		return "CompiledExtensionChecker [patterns=" + patterns + "]";
+	}
+
+	@Override
+	public String getName() {
+		return "CompiledExtensionChecker";
+	}
+
+	/**
+	 * The checker reads only the file name.
+	 */
+	@Override
+	public Cost getCost() {
+		return Cost.NAME;
+	}
+
+	@Override
+	public String getPattern() {
+		return patterns.toString();
+	}
+
+	/**
+	 * A node of the trie. The children are keyed by the previous sign of the
+	 * file name.
+	 */
+	private static class Node {
+
+		private final transient Map<Character, Node> children = new HashMap<Character, Node>();
+
+		private transient boolean terminal;
+
+		private transient Node digits;
+	}
+}
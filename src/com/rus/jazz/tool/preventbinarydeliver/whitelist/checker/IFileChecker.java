@@ -13,6 +13,25 @@ import com.rus.jazz.tool.preventbinarydeliver.whitelist.CheckFileException;
  */
 public interface IFileChecker {
 
+	/**
+	 * The cost of a check. The white list executes the cheaper checkers first,
+	 * so the content is only read, if no cheaper checker allows the file.
+	 */
+	enum Cost {
+		/**
+		 * The checker reads only the file name.
+		 */
+		NAME,
+		/**
+		 * The checker reads metadata of the file, like the size.
+		 */
+		METADATA,
+		/**
+		 * The checker reads the content of the file.
+		 */
+		CONTENT
+	}
+
 	/**
 	 * Check a file, weather it should be prevented or not.
 	 * 
@@ -35,4 +54,11 @@ public interface IFileChecker {
 	 */
 	String getPattern();
 
+	/**
+	 * Return the cost of the check.
+	 * 
+	 * @return cost of the check
+	 */
+	Cost getCost();
+
 }
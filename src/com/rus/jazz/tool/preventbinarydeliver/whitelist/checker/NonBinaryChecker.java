@@ -1,6 +1,7 @@
 package com.rus.jazz.tool.preventbinarydeliver.whitelist.checker;
 
 import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
@@ -45,6 +46,20 @@ public class NonBinaryChecker implements IFileChecker {
 			'+', '*', '-', '_', '.', ',', ';', ':', '@', '"', '\'', '#', '{',
 			'[', ']', '}', '\\', '<', '>', '\t', '\n', '\r' });
 
+	/**
+	 * Lookup table for all 256 byte values, true for the signs that are
+	 * counted as non binary: alphanumeric ASCII signs and the NON_BINRAY signs.
+	 */
+	private static final boolean[] NON_BINARY_TABLE = new boolean[256];
+
+	static {
+		for (int i = 0; i < NON_BINARY_TABLE.length; i++) {
+			final byte sign = (byte) i;
+			NON_BINARY_TABLE[i] = Character.isLetterOrDigit(sign)
+					|| NON_BINRAY.contains(sign);
+		}
+	}
+
 	/**
 	 * Defines the percents of non binary signs that are necessary to allo this
 	 * file
@@ -97,7 +112,8 @@ public class NonBinaryChecker implements IFileChecker {
 
 	/**
 	 * Checks weather the file contains mostly of binary characters or not. Only
-	 * the first numberOfBytes characters will be checked.
+	 * the first numberOfBytes characters will be checked, so only they are
+	 * requested from the file.
 	 */
 	@Override
 	public boolean checkFile(final AbstractFile file) throws CheckFileException {
@@ -115,15 +131,8 @@ public class NonBinaryChecker implements IFileChecker {
 			 * Only if file extension was not on blacklist
 			 */
 			if (result) {
-				final ByteArrayOutputStream out = new ByteArrayOutputStream();
-				long start = System.currentTimeMillis();
-				file.getContent(out);
-				long finished = System.currentTimeMillis();
-				System.out.println("Runtime for file.getContent(out) = "
-						+ (finished - start) + " ms. for " + out.size()
-						+ " bytes in output stream");
-
-				result = isNonBinary(out, numberBytes);
+				result = isNonBinary(file.getContentPrefix(numberBytes),
+						numberBytes);
 			}
 			return result;
 		} catch (Exception e) { // NOPMD
@@ -141,29 +150,70 @@ public class NonBinaryChecker implements IFileChecker {
 	 */
 	public static boolean isNonBinary(final ByteArrayOutputStream outputStream,
 			final int numberBytes) {
-		boolean result;
 		final byte[] content = outputStream.toByteArray();
+		return isNonBinary(content, content.length, numberBytes);
+	}
+
+	/**
+	 * Verify if the first bytes of a content are not a binary file by
+	 * approximation. The content can be only a prefix of the file.
+	 * 
+	 * @param content
+	 *            content or prefix of the content
+	 * @param length
+	 *            number of valid bytes in the content array
+	 * @param numberBytes
+	 * @return true, if the file is identified as non-binary, otherwise false
+	 */
+	public static boolean isNonBinary(final byte[] content, final int length,
+			final int numberBytes) {
+		return isNonBinary(ByteBuffer.wrap(content, 0, length), numberBytes);
+	}
+
+	/**
+	 * Verify if the remaining bytes of a buffer are not a binary file by
+	 * approximation. The position of the buffer is not changed. The content is
+	 * not copied, if the buffer has an accessible array, otherwise the bytes
+	 * to classify are copied with one bulk get. Every byte is classified by a
+	 * lookup table.
+	 * 
+	 * @param content
+	 *            content or prefix of the content
+	 * @param numberBytes
+	 * @return true, if the file is identified as non-binary, otherwise false
+	 */
+	public static boolean isNonBinary(final ByteBuffer content,
+			final int numberBytes) {
+		boolean result;
 
 		long nonBinaryChars = 0;
 
 		/**
 		 * Analyse numberOfBytes bytes or until the length of the content.
 		 */
-		final int max = content.length < numberBytes ? content.length
-				: numberBytes;
+		final int length = content.remaining();
+		final int max = length < numberBytes ? length : numberBytes;
 
-		for (int i = 0; i < max; i++) {
-			final byte sign = content[i];
-
-			if (Character.isLetterOrDigit(sign)) {
-				nonBinaryChars++;
-			} else if (NON_BINRAY.contains(sign)) {
+		final byte[] array;
+		final int offset;
+		if (content.hasArray()) {
+			// read the backing array directly
+			array = content.array();
+			offset = content.arrayOffset() + content.position();
+		} else {
+			// read-only or mapped buffer, copy only the bytes to classify
+			array = new byte[max];
+			offset = 0;
+			content.duplicate().get(array);
+		}
+		for (int i = offset; i < offset + max; i++) {
+			if (NON_BINARY_TABLE[array[i] & 0xFF]) {
 				nonBinaryChars++;
 			}
 		}
 
 		final float factor = (float) nonBinaryChars / max;
-		if (content.length > 0) {
+		if (length > 0) {
 			result = factor > LIMIT;
 		} else {
 			result = true; // if there is no content it can't be binary
@@ -210,6 +260,15 @@ public class NonBinaryChecker implements IFileChecker {
 		return result;
 	}
 
+	/**
+	 * Return the number of bytes, that are checked.
+	 * 
+	 * @return number of checked bytes
+	 */
+	public int getNumberBytes() {
+		return numberBytes;
+	}
+
 	@Override
 	public String getName() { // NOMPD
 		return "NonBinaryChecker";
@@ -221,6 +280,14 @@ public class NonBinaryChecker implements IFileChecker {
 				+ numberBytes + ", blacklist=" + blacklist + "]";
 	}
 
+	/**
+	 * The checker reads the content of the file.
+	 */
+	@Override
+	public Cost getCost() {
+		return Cost.CONTENT;
+	}
+
 	@Override
 	public String getPattern() {
 		return pattern;
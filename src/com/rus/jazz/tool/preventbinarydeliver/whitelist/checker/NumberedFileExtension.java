@@ -144,6 +144,24 @@ public class NumberedFileExtension implements IFileChecker {
 		return result;
 	}
 
+	/**
+	 * Return the part of the file ending before the numeric pattern.
+	 * 
+	 * @return file ending before the numeric part
+	 */
+	public String getFileEndingBefore() {
+		return fileEndingBefore;
+	}
+
+	/**
+	 * Return the part of the file ending after the numeric pattern.
+	 * 
+	 * @return file ending after the numeric part
+	 */
+	public String getFileEndingAfter() {
+		return fileEndingAfter;
+	}
+
 	@Override
 	public String toString() {
 		return "NumberedFileExtension [pattern=" + pattern
@@ -157,6 +175,14 @@ public class NumberedFileExtension implements IFileChecker {
 		return "NumberedFileExtensionChecker";
 	}
 
+	/**
+	 * The checker reads only the file name.
+	 */
+	@Override
+	public Cost getCost() {
+		return Cost.NAME;
+	}
+
 	@Override
 	public String getPattern() {
 		return pattern;
@@ -10,7 +10,9 @@ import com.rus.jazz.tool.preventbinarydeliver.whitelist.WhiteList;
  * This class is an implementation of the IFileChecker interface. It contains a
  * reference to another white list containing in a white list map. If this
  * checker is called to check a file the call is forwarded to the referenced
- * white list.
+ * white list. The WhiteListConfigurationBuilder resolves the references of
+ * the white lists when loading the configuration, so the referenced white list
+ * contains no further references.
  */
 public class Reference implements IFileChecker {
 
@@ -58,13 +60,7 @@ public class Reference implements IFileChecker {
 	@Override
 	public boolean checkFile(final AbstractFile file) throws CheckFileException {
 		try {
-			boolean result = false;
-			if (!file.alreadySerachedIn(referenceName)) {
-				final WhiteList whiteList = whiteListMap.get(referenceName);
-				file.addReference(referenceName);
-				result = whiteList.isPermitted(file);
-			}
-			return result;
+			return whiteListMap.get(referenceName).isPermitted(file);
 		} catch (CheckFileException e) {
 			throw new CheckFileException(e.getMessage(), e);
 		}
@@ -81,6 +77,14 @@ public class Reference implements IFileChecker {
 		return "Reference";
 	}
 
+	/**
+	 * The referenced white list may contain checkers, that read the content.
+	 */
+	@Override
+	public Cost getCost() {
+		return Cost.CONTENT;
+	}
+
 	@Override
 	public String getPattern() {
 		return pattern;
@@ -41,6 +41,14 @@ public class SimpleFileExtension implements IFileChecker {
 		return "SimpleFileExtension";
 	}
 
+	/**
+	 * The checker reads only the file name.
+	 */
+	@Override
+	public Cost getCost() {
+		return Cost.NAME;
+	}
+
 	@Override
 	public String getPattern() {
 		return pattern;
@@ -127,6 +127,14 @@ public class SmallFileChecker implements IFileChecker {
 				+ ", blacklist=" + blacklist + "]";
 	}
 
+	/**
+	 * The checker reads the file name and the file size.
+	 */
+	@Override
+	public Cost getCost() {
+		return Cost.METADATA;
+	}
+
 	@Override
 	public String getPattern() {
 		return pattern;
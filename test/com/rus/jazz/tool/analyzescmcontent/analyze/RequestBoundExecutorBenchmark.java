@@ -0,0 +1,172 @@
+package com.rus.jazz.tool.analyzescmcontent.analyze;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ibm.team.repository.common.TeamRepositoryException;
+import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeParameter;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.BatchLoader;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.IBatchSource;
+import com.rus.jazz.tool.analyzescmcontent.analyze.dao.ServerRequestLimiter;
+
+/**
+ * Compares the throughput of the RequestBoundExecutor with the sequential
+ * analyze against a simulated repository with a high latency. Every task
+ * stands for a change set, that fetches its files in chunks. The repository is
+ * an in-memory batch source, that sleeps for the latency in every request.
+ * 
+ * <pre>
+ * RequestBoundExecutorBenchmark [latency ms] [tasks] [max requests]
+ * </pre>
+ * 
+ * The executor and the limiter are singletons, so the benchmark runs in a JVM
+ * of its own and not as a unit test.
+ */
+public final class RequestBoundExecutorBenchmark {
+
+	private static final int FILES_PER_TASK = 50;
+
+	private static final int BATCH_SIZE = 25;
+
+	/**
+	 * Constructor.
+	 */
+	private RequestBoundExecutorBenchmark() {
+		super();
+	}
+
+	/**
+	 * Run the benchmark.
+	 * 
+	 * @param args
+	 *            latency of a request in ms, number of tasks and maximal
+	 *            number of requests at the same time
+	 * @throws AnalyzeException
+	 */
+	public static void main(final String[] args) throws AnalyzeException {
+		final int latency = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+		final int taskCount = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+		final int maxRequests = args.length > 2 ? Integer.parseInt(args[2]) : 8;
+
+		final Properties configuration = new Properties();
+		configuration.setProperty("dateFormatPattern", "yyyy-MM-dd");
+		configuration.setProperty("ServerRequestLimiter.MaxRequests", Integer.toString(maxRequests));
+		configuration.setProperty("RequestBoundExecutor.Enabled", "true");
+		SCMAnalyzeParameter.instantiate(configuration);
+		if (!ServerRequestLimiter.getInstance().isLimited() || !RequestBoundExecutor.getInstance().isEnabled()) {
+			throw new IllegalArgumentException("The benchmark needs a limit of the server requests");
+		}
+
+		final SleepingSource source = new SleepingSource(latency);
+		final List<Callable<Integer>> tasks = createTasks(source, taskCount);
+
+		// sequential path
+		long start = System.nanoTime();
+		for (final Callable<Integer> task : tasks) {
+			call(task);
+		}
+		final long sequentialNanos = System.nanoTime() - start;
+		final int sequentialPeak = source.resetPeak();
+
+		// bounded executor
+		start = System.nanoTime();
+		RequestBoundExecutor.getInstance().invokeAll(tasks);
+		final long boundedNanos = System.nanoTime() - start;
+		final int boundedPeak = source.resetPeak();
+
+		final int files = taskCount * FILES_PER_TASK;
+		System.out.println(taskCount + " tasks, " + files + " files, " + latency + " ms latency, at most "
+				+ maxRequests + " requests");
+		print("sequential", files, sequentialNanos, sequentialPeak);
+		print("bounded executor", files, boundedNanos, boundedPeak);
+		System.out.println(String.format("speedup %.1f", (double) sequentialNanos / boundedNanos));
+	}
+
+	private static List<Callable<Integer>> createTasks(final SleepingSource source, final int taskCount) {
+		final List<Callable<Integer>> tasks = new ArrayList<Callable<Integer>>(taskCount);
+		for (int i = 0; i < taskCount; i++) {
+			final List<Integer> handles = new ArrayList<Integer>(FILES_PER_TASK);
+			for (int j = 0; j < FILES_PER_TASK; j++) {
+				handles.add(Integer.valueOf(i * FILES_PER_TASK + j));
+			}
+			tasks.add(new Callable<Integer>() {
+				@Override
+				public Integer call() throws AnalyzeException {
+					return Integer.valueOf(new BatchLoader<Integer, Integer>(source, BATCH_SIZE).load(handles)
+							.size());
+				}
+			});
+		}
+		return tasks;
+	}
+
+	private static void call(final Callable<Integer> task) throws AnalyzeException {
+		try {
+			task.call();
+		} catch (AnalyzeException exception) {
+			throw exception;
+		} catch (Exception exception) {
+			throw new AnalyzeException(exception.getMessage(), exception);
+		}
+	}
+
+	private static void print(final String name, final int files, final long nanos, final int peak) {
+		System.out.println(String.format("%-16s %8d ms %10.0f files/s, %d requests at the same time", name,
+				nanos / 1000000, files * 1e9 / nanos, peak));
+	}
+
+	/**
+	 * In-memory batch source, that sleeps for the latency in every request
+	 * and records the highest number of requests at the same time.
+	 */
+	private static class SleepingSource implements IBatchSource<Integer, Integer> {
+
+		private final int latency;
+
+		private final AtomicInteger active = new AtomicInteger();
+
+		private final AtomicInteger peak = new AtomicInteger();
+
+		/**
+		 * Constructor.
+		 * 
+		 * @param latency
+		 *            latency of a request in ms
+		 */
+		SleepingSource(final int latency) {
+			this.latency = latency;
+		}
+
+		@Override
+		public List<Integer> fetch(final List<Integer> handles) throws TeamRepositoryException {
+			final int current = active.incrementAndGet();
+			int highest = peak.get();
+			while (current > highest && !peak.compareAndSet(highest, current)) {
+				highest = peak.get();
+			}
+			try {
+				Thread.sleep(latency);
+			} catch (InterruptedException exception) {
+				Thread.currentThread().interrupt();
+				throw new TeamRepositoryException("Interrupted", exception);
+			} finally {
+				active.decrementAndGet();
+			}
+			return new ArrayList<Integer>(handles);
+		}
+
+		/**
+		 * Return the highest number of requests at the same time since the
+		 * last call and reset it.
+		 * 
+		 * @return highest number of requests
+		 */
+		int resetPeak() {
+			return peak.getAndSet(0);
+		}
+	}
+
+}
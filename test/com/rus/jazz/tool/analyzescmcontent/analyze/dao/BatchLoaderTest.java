@@ -0,0 +1,185 @@
+package com.rus.jazz.tool.analyzescmcontent.analyze.dao;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.ibm.team.repository.common.TeamRepositoryException;
+import com.rus.jazz.tool.analyzescmcontent.SCMAnalyzeParameter;
+import com.rus.jazz.tool.analyzescmcontent.analyze.AnalyzeException;
+
+/**
+ * Test of the BatchLoader with an in-memory batch source instead of the item
+ * manager of the repository.
+ */
+public class BatchLoaderTest {
+
+	private InMemorySource source;
+
+	/**
+	 * Create the configuration and a source with the items 0 to 9. The item 5
+	 * is missing, so it is fetched as null.
+	 */
+	@Before
+	public void setUp() {
+		final Properties configuration = new Properties();
+		configuration.setProperty("dateFormatPattern", "yyyy-MM-dd");
+		SCMAnalyzeParameter.instantiate(configuration);
+
+		source = new InMemorySource();
+		for (int i = 0; i < 10; i++) {
+			if (i != 5) {
+				source.items.put("handle" + i, "item" + i);
+			}
+		}
+	}
+
+	/**
+	 * The handles are fetched in chunks of the batch size, the last chunk
+	 * contains the rest.
+	 * 
+	 * @throws AnalyzeException
+	 */
+	@Test
+	public void testChunking() throws AnalyzeException {
+		final BatchLoader<String, String> loader = new BatchLoader<String, String>(source, 4);
+		loader.load(handles(0, 10));
+
+		assertEquals(Arrays.asList(Integer.valueOf(4), Integer.valueOf(4), Integer.valueOf(2)), source.chunkSizes);
+	}
+
+	/**
+	 * The items are returned in the order of the handles, also across chunks.
+	 * 
+	 * @throws AnalyzeException
+	 */
+	@Test
+	public void testOrder() throws AnalyzeException {
+		final BatchLoader<String, String> loader = new BatchLoader<String, String>(source, 3);
+		final List<String> handles = Arrays.asList("handle9", "handle2", "handle7", "handle0", "handle4");
+
+		assertEquals(Arrays.asList("item9", "item2", "item7", "item0", "item4"), loader.load(handles));
+	}
+
+	/**
+	 * An item, that can not be fetched, is returned as null at its position.
+	 * 
+	 * @throws AnalyzeException
+	 */
+	@Test
+	public void testMissingItem() throws AnalyzeException {
+		final BatchLoader<String, String> loader = new BatchLoader<String, String>(source, 4);
+		final List<String> items = loader.load(handles(3, 8));
+
+		assertEquals(5, items.size());
+		assertEquals("item4", items.get(1));
+		assertNull(items.get(2));
+		assertEquals("item6", items.get(3));
+	}
+
+	/**
+	 * A source, that returns less items than handles, is an error.
+	 */
+	@Test
+	public void testSizeMismatch() {
+		source.dropLast = true;
+		final BatchLoader<String, String> loader = new BatchLoader<String, String>(source, 4);
+		try {
+			loader.load(handles(0, 4));
+			fail("AnalyzeException expected");
+		} catch (AnalyzeException exception) {
+			assertEquals("Batch source returned 3 items for 4 handles", exception.getMessage());
+		}
+	}
+
+	/**
+	 * An error of the source is passed on as AnalyzeException.
+	 */
+	@Test
+	public void testSourceError() {
+		source.error = true;
+		final BatchLoader<String, String> loader = new BatchLoader<String, String>(source, 4);
+		try {
+			loader.load(handles(0, 4));
+			fail("AnalyzeException expected");
+		} catch (AnalyzeException exception) {
+			assertEquals("repository not available", exception.getMessage());
+		}
+	}
+
+	/**
+	 * The counters sum up over all calls of the loader.
+	 * 
+	 * @throws AnalyzeException
+	 */
+	@Test
+	public void testCounters() throws AnalyzeException {
+		final BatchLoader<String, String> loader = new BatchLoader<String, String>(source, 4);
+		loader.load(handles(0, 10));
+		loader.load(handles(0, 3));
+		loader.load(new ArrayList<String>());
+
+		assertEquals(4, loader.getRoundTrips());
+		assertEquals(13, loader.getFetchedItems());
+		assertEquals(9, loader.getSavedRoundTrips());
+	}
+
+	/**
+	 * The batch size must be higher than 0.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidBatchSize() {
+		new BatchLoader<String, String>(source, 0);
+	}
+
+	private static List<String> handles(final int from, final int to) {
+		final List<String> result = new ArrayList<String>();
+		for (int i = from; i < to; i++) {
+			result.add("handle" + i);
+		}
+		return result;
+	}
+
+	/**
+	 * Batch source, that keeps the items in a map and records the size of
+	 * every fetched chunk.
+	 */
+	private static class InMemorySource implements IBatchSource<String, String> {
+
+		private final Map<String, String> items = new HashMap<String, String>();
+
+		private final List<Integer> chunkSizes = new ArrayList<Integer>();
+
+		private boolean dropLast;
+
+		private boolean error;
+
+		@Override
+		public List<String> fetch(final List<String> handles) throws TeamRepositoryException {
+			if (error) {
+				throw new TeamRepositoryException("repository not available");
+			}
+			chunkSizes.add(Integer.valueOf(handles.size()));
+
+			final List<String> result = new ArrayList<String>();
+			for (final String handle : handles) {
+				result.add(items.get(handle));
+			}
+			if (dropLast) {
+				result.remove(result.size() - 1);
+			}
+			return result;
+		}
+	}
+
+}
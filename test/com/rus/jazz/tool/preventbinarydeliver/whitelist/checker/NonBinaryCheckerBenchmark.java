@@ -0,0 +1,121 @@
+package com.rus.jazz.tool.preventbinarydeliver.whitelist.checker;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Measures the bytes per second of the NonBinaryChecker with the lookup table
+ * against the check of every single sign, that the checker used before. The
+ * content is mostly text with some binary signs. The new check is measured
+ * with a heap array, a read-only buffer and a direct buffer, like the contents
+ * of the content lease and the mapped spool files.
+ * 
+ * <pre>
+ * NonBinaryCheckerBenchmark [MB] [rounds]
+ * </pre>
+ */
+public final class NonBinaryCheckerBenchmark {
+
+	private static final List<Byte> NON_BINRAY = Arrays.asList(new Byte[] { 0,
+			' ', '!', '"', (byte) '~', '$', '%', '&', '/', '(', ')', '=', '?',
+			'+', '*', '-', '_', '.', ',', ';', ':', '@', '"', '\'', '#', '{',
+			'[', ']', '}', '\\', '<', '>', '\t', '\n', '\r' });
+
+	/**
+	 * Keeps the results, so the checks are not optimized away.
+	 */
+	private static int permitted;
+
+	/**
+	 * Constructor.
+	 */
+	private NonBinaryCheckerBenchmark() {
+		super();
+	}
+
+	/**
+	 * Run the benchmark.
+	 * 
+	 * @param args
+	 *            size of the content in MB and number of rounds
+	 */
+	public static void main(final String[] args) {
+		final int size = (args.length > 0 ? Integer.parseInt(args[0]) : 16) * 1024 * 1024;
+		final int rounds = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+		final byte[] content = createContent(size);
+		final ByteBuffer readOnly = ByteBuffer.wrap(content).asReadOnlyBuffer();
+		final ByteBuffer direct = ByteBuffer.allocateDirect(size);
+		direct.put(content).flip();
+
+		// warm up
+		for (int i = 0; i < 3; i++) {
+			measureBefore(content);
+			measure(ByteBuffer.wrap(content));
+			measure(readOnly);
+			measure(direct);
+		}
+
+		long before = Long.MAX_VALUE;
+		long array = Long.MAX_VALUE;
+		long readOnlyTime = Long.MAX_VALUE;
+		long directTime = Long.MAX_VALUE;
+		for (int i = 0; i < rounds; i++) {
+			before = Math.min(before, measureBefore(content));
+			array = Math.min(array, measure(ByteBuffer.wrap(content)));
+			readOnlyTime = Math.min(readOnlyTime, measure(readOnly));
+			directTime = Math.min(directTime, measure(direct));
+		}
+
+		System.out.println(size / (1024 * 1024) + " MB, best of " + rounds + " rounds");
+		print("sign by sign", size, before, before);
+		print("table, array", size, array, before);
+		print("table, read-only", size, readOnlyTime, before);
+		print("table, direct", size, directTime, before);
+		System.out.println(permitted + " checks classified the content as non binary");
+	}
+
+	private static byte[] createContent(final int size) {
+		final Random random = new Random(4711);
+		final byte[] text = "public static void main(final String[] args) {\r\n\t// 42 (x + y) * z;\r\n}\r\n"
+				.getBytes();
+		final byte[] content = new byte[size];
+		for (int i = 0; i < size; i++) {
+			content[i] = random.nextInt(100) < 3 ? (byte) random.nextInt(256) : text[i % text.length];
+		}
+		return content;
+	}
+
+	private static long measure(final ByteBuffer content) {
+		final long start = System.nanoTime();
+		if (NonBinaryChecker.isNonBinary(content, content.remaining())) {
+			permitted++;
+		}
+		return System.nanoTime() - start;
+	}
+
+	private static long measureBefore(final byte[] content) {
+		final long start = System.nanoTime();
+		long nonBinaryChars = 0;
+		for (int i = 0; i < content.length; i++) {
+			final byte sign = content[i];
+			if (Character.isLetterOrDigit(sign)) {
+				nonBinaryChars++;
+			} else if (NON_BINRAY.contains(sign)) {
+				nonBinaryChars++;
+			}
+		}
+		if ((float) nonBinaryChars / content.length > 0.9f) {
+			permitted++;
+		}
+		return System.nanoTime() - start;
+	}
+
+	private static void print(final String name, final int size, final long nanos, final long before) {
+		System.out.println(String.format("%-18s %10.1f MB/s, speedup %.1f", name, size * 1e9 / nanos
+				/ (1024 * 1024), (double) before / nanos));
+	}
+
+}
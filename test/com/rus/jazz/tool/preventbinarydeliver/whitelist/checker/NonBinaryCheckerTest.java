@@ -0,0 +1,141 @@
+package com.rus.jazz.tool.preventbinarydeliver.whitelist.checker;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Test of the NonBinaryChecker. The lookup table of the checker is compared
+ * with the check of every single sign, that the checker used before.
+ */
+public class NonBinaryCheckerTest {
+
+	/**
+	 * The non binary signs, that are not alphanumeric, as the checker defined
+	 * them before the lookup table.
+	 */
+	private static final List<Byte> NON_BINRAY = Arrays.asList(new Byte[] { 0,
+			' ', '!', '"', (byte) '~', '$', '%', '&', '/', '(', ')', '=', '?',
+			'+', '*', '-', '_', '.', ',', ';', ':', '@', '"', '\'', '#', '{',
+			'[', ']', '}', '\\', '<', '>', '\t', '\n', '\r' });
+
+	/**
+	 * A content of one sign is non binary, if the sign is non binary. For all
+	 * 256 byte values the table must give the same answer as the previous
+	 * check of the sign.
+	 */
+	@Test
+	public void testTableForAllByteValues() {
+		for (int i = 0; i < 256; i++) {
+			final byte sign = (byte) i;
+			final boolean expected = Character.isLetterOrDigit(sign)
+					|| NON_BINRAY.contains(sign);
+			final byte[] content = new byte[] { sign };
+
+			assertEquals("byte " + i, expected,
+					NonBinaryChecker.isNonBinary(content, 1, 1));
+		}
+	}
+
+	/**
+	 * The array, the read-only buffer and the direct buffer give the same
+	 * answer for all 256 byte values.
+	 */
+	@Test
+	public void testBuffersForAllByteValues() {
+		for (int i = 0; i < 256; i++) {
+			final byte[] content = new byte[] { (byte) i };
+			final boolean expected = NonBinaryChecker.isNonBinary(content, 1,
+					1);
+			final ByteBuffer direct = ByteBuffer.allocateDirect(1);
+			direct.put(content).flip();
+
+			assertEquals("read-only buffer, byte " + i, expected,
+					NonBinaryChecker.isNonBinary(ByteBuffer.wrap(content)
+							.asReadOnlyBuffer(), 1));
+			assertEquals("direct buffer, byte " + i, expected,
+					NonBinaryChecker.isNonBinary(direct, 1));
+		}
+	}
+
+	/**
+	 * Random contents with a changing share of binary signs are classified
+	 * like the previous implementation did. Only the first number of bytes
+	 * are checked.
+	 */
+	@Test
+	public void testRandomContents() {
+		final Random random = new Random(4711);
+		for (int run = 0; run < 200; run++) {
+			final byte[] content = new byte[1 + random.nextInt(2000)];
+			final int binaryPercent = random.nextInt(25);
+			for (int i = 0; i < content.length; i++) {
+				content[i] = random.nextInt(100) < binaryPercent ? (byte) random
+						.nextInt(256) : (byte) ('a' + random.nextInt(26));
+			}
+			final int numberBytes = 1 + random.nextInt(1500);
+			final boolean expected = isNonBinaryBefore(content, numberBytes);
+
+			final ByteArrayOutputStream output = new ByteArrayOutputStream();
+			output.write(content, 0, content.length);
+			assertEquals("run " + run, expected,
+					NonBinaryChecker.isNonBinary(output, numberBytes));
+			assertEquals("run " + run, expected, NonBinaryChecker.isNonBinary(
+					ByteBuffer.wrap(content).asReadOnlyBuffer(), numberBytes));
+		}
+	}
+
+	/**
+	 * The position of the buffer is the start of the content and is not
+	 * changed by the check.
+	 */
+	@Test
+	public void testPositionOfBuffer() {
+		final byte[] content = new byte[20];
+		Arrays.fill(content, 0, 10, (byte) 1);
+		Arrays.fill(content, 10, 20, (byte) 'a');
+		final ByteBuffer buffer = ByteBuffer.wrap(content).asReadOnlyBuffer();
+		buffer.position(10);
+
+		assertTrue(NonBinaryChecker.isNonBinary(buffer, 10));
+		assertEquals(10, buffer.position());
+	}
+
+	/**
+	 * An empty content is not binary.
+	 */
+	@Test
+	public void testEmptyContent() {
+		assertTrue(NonBinaryChecker.isNonBinary(new byte[0], 0, 10));
+		assertTrue(NonBinaryChecker.isNonBinary(ByteBuffer.allocate(0)
+				.asReadOnlyBuffer(), 10));
+	}
+
+	/**
+	 * The check of the content as the NonBinaryChecker implemented it before
+	 * the lookup table.
+	 */
+	private static boolean isNonBinaryBefore(final byte[] content,
+			final int numberBytes) {
+		long nonBinaryChars = 0;
+		final int max = content.length < numberBytes ? content.length
+				: numberBytes;
+		for (int i = 0; i < max; i++) {
+			final byte sign = content[i];
+			if (Character.isLetterOrDigit(sign)) {
+				nonBinaryChars++;
+			} else if (NON_BINRAY.contains(sign)) {
+				nonBinaryChars++;
+			}
+		}
+		return content.length == 0 || (float) nonBinaryChars / max > 0.9f;
+	}
+
+}